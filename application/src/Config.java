@@ -19,6 +19,7 @@ public class Config {
     public static String KEY_US_STATES = "usstates";
     public static String KEY_FILTER_DOC = "filterdoc";
     public static String KEY_STYLE = "style";
+    public static String KEY_FILTER_THREADS = "filterthreads";
     // endregion
 
     // region Default paths of the config file
@@ -29,6 +30,11 @@ public class Config {
     public static String PATH_STYLE = ".res/main.css";
     // endregion
 
+    /**
+     * Default count of the threads to filter the data. {@code 0} to use the common {@code ForkJoinPool}.
+     */
+    public static int DEFAULT_FILTER_THREADS = 0;
+
     public static String PATH_CONFIG = "config.cfg";
 
     /**
@@ -98,7 +104,8 @@ public class Config {
                     toAbsolutePath(configPaths.getOrDefault(KEY_US_POPS, PATH_US_POPS)),
                     toAbsolutePath(configPaths.getOrDefault(KEY_US_STATES, PATH_US_STATES)),
                     toAbsolutePath(configPaths.getOrDefault(KEY_FILTER_DOC, PATH_FILTER_DOC)),
-                    toAbsolutePath(configPaths.getOrDefault(KEY_STYLE, PATH_STYLE)));
+                    toAbsolutePath(configPaths.getOrDefault(KEY_STYLE, PATH_STYLE)),
+                    parseInt(configPaths.get(KEY_FILTER_THREADS), DEFAULT_FILTER_THREADS));
         } catch (IOException e) {
             System.out.println(
                     "IOException occurs during the config file parsing. Creating the new config file and overwrite it.");
@@ -115,6 +122,26 @@ public class Config {
     private String usStatesPath;
     private String filterDocPath;
     private String stylePath;
+    private int filterThreads;
+
+    /**
+     * Parse {@code value} as an integer.
+     *
+     * @param value value in the config file, {@code null} if not listed
+     * @param defaultValue value used if {@code value} is not listed or is not an integer
+     * @return parsed integer
+     */
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
 
     /**
      * Constructor of default config.
@@ -125,19 +152,22 @@ public class Config {
                 toAbsolutePath(PATH_US_POPS),
                 toAbsolutePath(PATH_US_STATES),
                 toAbsolutePath(PATH_FILTER_DOC),
-                toAbsolutePath(PATH_STYLE));
+                toAbsolutePath(PATH_STYLE),
+                DEFAULT_FILTER_THREADS);
     }
 
     /**
      * Constructor of given config properties.
      *
-     * @param dataPath      path of the COVID-19 case data file
+     * @param dataPath      path of the COVID-19 case data file, or the directory of the daily report files
      * @param usPopsPath    path of the US population data file
      * @param usStatesPath  path of the US states name conversion file
      * @param filterDocPath path of the filter syntax documentation file
      * @param stylePath     path of the css stylesheet file
+     * @param filterThreads count of the threads to filter the data. {@code 0} to use the common pool.
      */
-    private Config(String dataPath, String usPopsPath, String usStatesPath, String filterDocPath, String stylePath) {
+    private Config(String dataPath, String usPopsPath, String usStatesPath, String filterDocPath, String stylePath,
+                   int filterThreads) {
         this.dataPath = dataPath;
         if (!isFileExists(this.dataPath)) {
             this.dataPath = toAbsolutePath(PATH_DATA);
@@ -163,6 +193,8 @@ public class Config {
             this.stylePath = toAbsolutePath(PATH_STYLE);
         }
 
+        this.filterThreads = filterThreads;
+
         this.writeConfigFile();
     }
 
@@ -186,6 +218,15 @@ public class Config {
         return stylePath;
     }
 
+    /**
+     * Get the count of the threads to filter the data.
+     *
+     * @return count of the threads. {@code 0} or less to use the common pool, {@code 1} to filter sequentially.
+     */
+    public int getFilterThreads() {
+        return filterThreads;
+    }
+
     /**
      * Convert this {@code Config} to {@code StringBuilder} which contains the content of this config.
      *
@@ -198,6 +239,7 @@ public class Config {
         sb.append(String.join(",", KEY_US_STATES, this.usStatesPath)).append("\n");
         sb.append(String.join(",", KEY_FILTER_DOC, this.filterDocPath)).append("\n");
         sb.append(String.join(",", KEY_STYLE, this.stylePath)).append("\n");
+        sb.append(String.join(",", KEY_FILTER_THREADS, String.valueOf(this.filterThreads))).append("\n");
 
         return sb;
     }
@@ -2,15 +2,21 @@ import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.layout.*;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 public class FilterSection implements IGuiUnit {
     private static final String TITLE_OVERALL = "Latest Overall";
     private static final String TITLE_PER_100K = "Latest Per 100K residents";
 
+    // Filtered results are cached up to this count and this multiple of the entries of the default data
+    private static final int FILTER_CACHE_RESULTS = 16;
+    private static final int FILTER_CACHE_ENTRIES_FACTOR = 2;
+
     // Data
-    private final DataHolder defaultHolder;
+    private DataHolder defaultHolder;
     private DataHolder currentHolder;
+    private FilterResultCache filterCache;
 
     private Consumer<String> onStatusUpdate;
 
@@ -46,6 +52,7 @@ public class FilterSection implements IGuiUnit {
         // Store data
         this.defaultHolder = defaultDataHolder;
         this.currentHolder = defaultDataHolder;
+        this.filterCache = newFilterCache(defaultDataHolder);
 
         // Initialize GUI elements
         this.overall = new CaseSection(width, TITLE_OVERALL);
@@ -92,6 +99,14 @@ public class FilterSection implements IGuiUnit {
         // Refresh
         updateLayoutData();
     }
+
+    /**
+     * Create the cache of the filtered data, sized by the entries of {@code defaultDataHolder}.
+     */
+    private static FilterResultCache newFilterCache(DataHolder defaultDataHolder) {
+        return new FilterResultCache(
+                FILTER_CACHE_RESULTS, (long) defaultDataHolder.getDataCount() * FILTER_CACHE_ENTRIES_FACTOR);
+    }
     // endregion
 
     // region Events
@@ -102,7 +117,8 @@ public class FilterSection implements IGuiUnit {
     private void onFilterEntered() {
         try {
             FilterCondition condition = FilterQueryParser.parse(prompt.getTextInput());
-            updateHolder(defaultHolder.filterData(condition));
+            // Narrowing the displayed filter only needs to filter the displayed data
+            updateHolder(filterCache.filterData(defaultHolder, condition, currentHolder));
             prompt.hideErrorMessage();
 
             updateStatus("Filter successfully applied.");
@@ -118,6 +134,34 @@ public class FilterSection implements IGuiUnit {
     }
     // endregion
 
+    /**
+     * Replace the default data with {@code holder}, clearing the filter and triggering all layout updates.
+     *
+     * @param holder the data holder containing all data
+     */
+    public void attachData(DataHolder holder) {
+        this.defaultHolder = holder;
+        this.currentHolder = holder;
+        this.filterCache = newFilterCache(holder);
+
+        prompt.hideErrorMessage();
+        this.updateLayout();
+    }
+
+    /**
+     * Append the entries newly loaded to the default data and the filtered data, triggering all layout updates.
+     *
+     * @param appended entries newly loaded
+     */
+    public void appendData(List<DataEntry> appended) {
+        defaultHolder.appendEntries(appended);
+        if (currentHolder != defaultHolder) {
+            currentHolder.appendEntries(appended);
+        }
+
+        this.updateLayout();
+    }
+
     /**
      * Execute {@code onStatusUpdate} with the given new status {@code String}.
      *
@@ -196,6 +240,19 @@ public class FilterSection implements IGuiUnit {
         return currentHolder;
     }
 
+    public DataHolder getDefaultHolder() {
+        return defaultHolder;
+    }
+
+    /**
+     * Get the cache of the filtered data, which also counts the hits and the misses.
+     *
+     * @return cache of the filtered data
+     */
+    public FilterResultCache getFilterCache() {
+        return filterCache;
+    }
+
     /**
      * {@inheritDoc}
      */
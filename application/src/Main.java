@@ -1,43 +1,205 @@
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Main extends Application {
     private static final String APP_TITLE = "COVID-19 Analyzer (CS400 / AT87)";
 
+    /**
+     * Argument to print the summary of the data without launching the GUI.
+     */
+    private static final String ARG_SUMMARY = "--summary";
+
     private static DataHolder mainData;
+    private static IAppendedDataReader appendedReader;
 
     /**
      * Load the necessary data files.
+     * <p>
+     * Each stage of the loading is recorded to {@code profiler},
+     * and the report is written next to the data source at the end.
      *
      * @param config config object of the application
+     * @param profiler profiler to record the stages of the loading
+     * @return report of the lines rejected while loading the data source
      * @throws IOException thrown if any of the resource file does not exist
      */
-    private void loadFile(Config config) throws IOException {
-                StateNameConverter converter = new StateNameConverter(config.getUsStatesPath());
-        PopulationDataParser.loadUsPopFile(config.getUsPopsPath(), converter);
+    private IngestRejectionReport loadFile(Config config, IngestProfiler profiler) throws IOException {
+        loadPopulationFile(config, profiler);
+
+        IngestRejectionReport report = new IngestRejectionReport();
 
         try {
-            mainData = DataHolder.parseFile(config.getDataPath());
+            if (Files.isDirectory(Paths.get(config.getDataPath()))) {
+                DailyReportDirectoryLoader loader = new DailyReportDirectoryLoader(config.getDataPath());
+
+                List<DataEntry> entries;
+                try (IngestProfiler.Stage stage = profiler.start("Parsing daily reports")) {
+                    entries = loader.loadAll(report);
+                    stage.bytes(directorySize(config.getDataPath()))
+                            .rows(report.getLineCount())
+                            .rejected(report.getRejectedCount());
+                }
+
+                try (IngestProfiler.Stage stage = profiler.start("Preparing daily stats")) {
+                    mainData = new DataHolder(entries.stream());
+                    stage.rows(entries.size());
+                }
+
+                try (IngestProfiler.Stage stage = profiler.start("Collecting column statistics")) {
+                    stage.rows(mainData.getStatistics().getRowCount());
+                }
+
+                appendedReader = loader;
+            } else {
+                mainData = DataHolder.loadFile(config.getDataPath(), report, profiler);
+
+                // Lines cannot be appended to a compressed file
+                if (!CompressedFiles.isCompressed(config.getDataPath())) {
+                    // Lines appended during the loading are read from where the loading stopped
+                    appendedReader = new DataFileTailReader(
+                            config.getDataPath(), mainData.getLoadedFileSize(), report);
+                }
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
+
+        try {
+            profiler.writeReport(IngestProfiler.reportPath(config.getDataPath()));
+        } catch (IOException e) {
+            System.out.println("Failed to write the ingest report.");
+        }
+
+        return report;
+    }
+
+    /**
+     * Get the total size of the files directly in the directory at {@code path}.
+     */
+    private static long directorySize(String path) throws IOException {
+        try (Stream<Path> paths = Files.list(Paths.get(path))) {
+            long size = 0;
+            for (Path file : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                size += Files.size(file);
+            }
+
+            return size;
+        }
+    }
+
+    /**
+     * Load the population data files using the snapshot of the population data.
+     *
+     * @param config config object of the application
+     * @param profiler profiler to record the stages of the loading
+     * @throws IOException thrown if any of the population data file does not exist
+     */
+    private static void loadPopulationFile(Config config, IngestProfiler profiler) throws IOException {
+        StateNameConverter converter = new StateNameConverter(config.getUsStatesPath());
+        PopulationDataParser.loadUsPopFile(config.getUsPopsPath(), converter, profiler);
+    }
+
+    /**
+     * Print the summary of the data to the console.
+     * <p>
+     * The data file is aggregated in a single pass without holding the data entries.
+     *
+     * @param config config object of the application
+     * @throws IOException thrown if any of the resource file does not exist
+     */
+    private static void printSummary(Config config) throws IOException {
+        loadPopulationFile(config, new IngestProfiler());
+
+        IngestRejectionReport report = new IngestRejectionReport();
+        DailyCaseAggregator aggregator;
+
+        if (Files.isDirectory(Paths.get(config.getDataPath()))) {
+            aggregator = new DailyReportDirectoryLoader(config.getDataPath())
+                    .loadAll(report)
+                    .stream()
+                    .collect(DailyCaseAggregator.collector());
+        } else {
+            aggregator = DataHolder.summarizeFile(config.getDataPath(), report);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Dates: %s ~ %s\n", aggregator.getFirstDate(), aggregator.getLastDate()));
+        sb.append(String.format("Entries: %d\n", aggregator.getEntryCount()));
+        sb.append(String.format("Population: %d\n", aggregator.getPopulation()));
+        sb.append("\n");
+        sb.append("# Daily Case Counts\n");
+        sb.append(DailyStatsTableMaker.tableString(aggregator.toDailyCaseStats())).append("\n");
+        sb.append("\n");
+        sb.append(report);
+
+        System.out.println(sb);
     }
 
     @Override
     public void start(Stage primaryStage) {
         Config config = Config.parse(Config.PATH_CONFIG);
+        DataHolder.setFilterThreads(config.getFilterThreads());
 
-        try {
-            loadFile(config);
-            new MainLayout(primaryStage, config, APP_TITLE, 1500, 800, mainData).applyAndShow();
-        } catch (IOException e) {
-            FileLoadFailedLayout.displayAlert(e);
+        MainLayout layout = new MainLayout(primaryStage, config, APP_TITLE, 1500, 800);
+        layout.applyAndShow();
+
+        // The data is loaded on a background thread, and the progress is shown in the footer
+        IngestProfiler profiler = new IngestProfiler(message -> Platform.runLater(() -> layout.updateStatus(message)));
+
+        Thread thread = new Thread(() -> {
+            try {
+                IngestRejectionReport report = loadFile(config, profiler);
+
+                // Progress messages are also posted to the application thread, so this has to be posted after them
+                Platform.runLater(() -> onDataLoaded(layout, report, profiler));
+            } catch (IOException e) {
+                Platform.runLater(() -> FileLoadFailedLayout.displayAlert(e));
+            }
+        }, "Load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Function to be called on the application thread when the data has been loaded.
+     *
+     * @param layout main layout to attach the data to
+     * @param report report of the lines rejected while loading the data source
+     * @param profiler profiler recording the loading
+     */
+    private static void onDataLoaded(MainLayout layout, IngestRejectionReport report, IngestProfiler profiler) {
+        if (mainData == null) {
+            layout.updateStatus("Failed to load the data.");
+            return;
         }
+
+        layout.attachData(mainData, appendedReader);
+        layout.updateStatus(String.format(
+                "%d lines ingested, %d rejected. %s",
+                report.getLineCount(), report.getRejectedCount(), profiler.summary()));
     }
 
     public static void main(String[] args) {
+        if (Arrays.asList(args).contains(ARG_SUMMARY)) {
+            try {
+                printSummary(Config.parse(Config.PATH_CONFIG));
+            } catch (IOException e) {
+                System.out.println("Failed to load the data: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
         launch(args);
     }
 }
\ No newline at end of file
@@ -18,6 +18,8 @@ public class MainFooter implements IGuiUnit {
     private final Supplier<DataHolder> fnGetHolder;
     // endregion
 
+    private Runnable onRefresh;
+
     /**
      * Flag to indicate if the export dialog has been called
      * to display to prevent the user from opening multiple export dialogs.
@@ -47,8 +49,12 @@ public class MainFooter implements IGuiUnit {
             setId("export-preview");
             setOnAction(e -> onExportClicked());
         }};
+        Button b3_refresh = new Button("Refresh Data") {{
+            setId("refresh");
+            setOnAction(e -> onRefreshClicked());
+        }};
 
-        this.box.getChildren().addAll(status, Utils.growRegion, b1_doc, b2_export);
+        this.box.getChildren().addAll(status, Utils.growRegion, b1_doc, b2_export, b3_refresh);
     }
 
     // region On event
@@ -67,6 +73,19 @@ public class MainFooter implements IGuiUnit {
             exportDialogOpened = true;
         }
     }
+
+    /**
+     * Function to be called when the refresh button is clicked.
+     */
+    private void onRefreshClicked() {
+        if (onRefresh != null) {
+            onRefresh.run();
+        }
+    }
+
+    public void onRefresh(Runnable action) {
+        this.onRefresh = action;
+    }
     // endregion
 
     /**
@@ -1,6 +1,11 @@
+import javafx.application.Platform;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Main layout GUI class of the application.
  */
@@ -10,17 +15,24 @@ public class MainLayout extends LayoutBase {
 
     private final MainFooter footer;
 
+    private IAppendedDataReader appendedReader;
+    private boolean loading = true;
+    private boolean refreshing;
+
     /**
+     * The layout is initialized without any data until {@code attachData()} is called.
+     *
      * @param stage owner stage of the layout
      * @param appConfig application config object
      * @param title title of the layout
      * @param width width of the layout in pixels (px)
      * @param height height of the layout in pixels (px)
-     * @param defaultHolder the data holder to be used when initializing thi layout
      */
-    public MainLayout(Stage stage, Config appConfig, String title, int width, int height, DataHolder defaultHolder) {
+    public MainLayout(Stage stage, Config appConfig, String title, int width, int height) {
         super(stage, appConfig, title, width, height, true);
 
+        DataHolder defaultHolder = new DataHolder(Stream.empty());
+
         // Store & set layout helping GUI elements
         VBox.setVgrow(Utils.growRegion, Priority.ALWAYS);
         HBox.setHgrow(Utils.growRegion, Priority.ALWAYS);
@@ -31,6 +43,99 @@ public class MainLayout extends LayoutBase {
 
         this.footer = new MainFooter(stage, appConfig, filterSection::getCurrentHolder);
         this.filterSection.onStatusUpdate(this.footer::updateStatus);
+        this.footer.onRefresh(this::onRefreshData);
+    }
+
+    // region On event
+    /**
+     * Function to be called when the refresh button is clicked.
+     * <p>
+     * Only the data added to the data source is parsed and merged into the current data.
+     * The data source is read on a background thread, and the progress is shown in the footer.
+     */
+    private void onRefreshData() {
+        if (loading) {
+            footer.updateStatus("The data is still loading.");
+            return;
+        }
+        if (appendedReader == null) {
+            footer.updateStatus("Refreshing is not supported for this data source.");
+            return;
+        }
+        if (refreshing) {
+            return;
+        }
+        refreshing = true;
+
+        IngestProfiler profiler = new IngestProfiler(message -> Platform.runLater(() -> footer.updateStatus(message)));
+
+        Thread thread = new Thread(() -> {
+            try {
+                List<DataEntry> appended;
+                try (IngestProfiler.Stage stage = profiler.start("Reading appended data")) {
+                    appended = appendedReader.readAppended();
+                    stage.rows(appended == null ? 0 : appended.size());
+                }
+
+                Platform.runLater(() -> onDataAppended(appended, profiler));
+            } catch (IOException e) {
+                Platform.runLater(() -> {
+                    footer.updateStatus("Failed to refresh the data.");
+                    refreshing = false;
+                });
+            }
+        }, "Refresh");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Function to be called on the application thread when the appended data has been read.
+     *
+     * @param appended appended data entries. {@code null} if the data source has been modified.
+     * @param profiler profiler recording the refresh
+     */
+    private void onDataAppended(List<DataEntry> appended, IngestProfiler profiler) {
+        refreshing = false;
+
+        if (appended == null) {
+            footer.updateStatus("Data source has been modified. Restart to reload the data.");
+            return;
+        }
+
+        try (IngestProfiler.Stage stage = profiler.start("Updating daily stats")) {
+            filterSection.appendData(appended);
+            summarySection.updateData(filterSection.getDefaultHolder());
+            stage.rows(appended.size());
+        }
+
+        // Progress messages are also posted to the application thread, so this has to be posted after them
+        Platform.runLater(() -> footer.updateStatus(
+                String.format("%d entries appended. %s", appended.size(), profiler.summary())));
+    }
+    // endregion
+
+    /**
+     * Attach the data loaded from the data source, triggering all layout updates.
+     *
+     * @param defaultHolder the data holder containing all data
+     * @param appendedReader reader of the data added to the data source after {@code defaultHolder} was loaded
+     */
+    public void attachData(DataHolder defaultHolder, IAppendedDataReader appendedReader) {
+        this.appendedReader = appendedReader;
+        this.loading = false;
+
+        filterSection.attachData(defaultHolder);
+        summarySection.updateData(defaultHolder);
+    }
+
+    /**
+     * Update the status shown in the footer.
+     *
+     * @param status status string to replace
+     */
+    public void updateStatus(String status) {
+        footer.updateStatus(status);
     }
 
     /**
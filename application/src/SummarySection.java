@@ -69,6 +69,15 @@ public class SummarySection implements IGuiUnit {
         this.box = summarySection();
     }
 
+    /**
+     * Update the summary with the given data.
+     *
+     * @param defaultDataHolder data holder containing all data
+     */
+    public void updateData(DataHolder defaultDataHolder) {
+        this.updateCaseSections(defaultDataHolder);
+    }
+
     @Override
     public Pane getGuiElement() {
         return box;
@@ -0,0 +1,155 @@
+import java.util.Arrays;
+
+/**
+ * Statistics of a numeric column, used to estimate the selectivity of the filter predicates.
+ * <p>
+ * The distribution is kept as an equi-depth histogram: the bounds split the sorted values
+ * into buckets holding the same count of the values, so skewed columns still get fine buckets where most values are.
+ */
+public class ColumnStatistics {
+    /**
+     * Count of the buckets of the histogram.
+     */
+    public static final int BUCKET_COUNT = 32;
+
+    private final double min;
+    private final double max;
+    private final int distinctCount;
+
+    /**
+     * {@code bounds[i]} and {@code bounds[i + 1]} are the smallest and the largest value of the bucket {@code i}.
+     */
+    private final double[] bounds;
+
+    private ColumnStatistics(double min, double max, int distinctCount, double[] bounds) {
+        this.min = min;
+        this.max = max;
+        this.distinctCount = distinctCount;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Collect the statistics of {@code values}. {@code NaN} values are ignored.
+     *
+     * @param values values of the column, which is sorted in place
+     * @return statistics of the values
+     */
+    public static ColumnStatistics of(double[] values) {
+        Arrays.sort(values);
+
+        // NaN is sorted to the end
+        int count = values.length;
+        while (count > 0 && Double.isNaN(values[count - 1])) {
+            count--;
+        }
+
+        if (count == 0) {
+            return new ColumnStatistics(Double.NaN, Double.NaN, 0, new double[0]);
+        }
+
+        int distinctCount = 1;
+        for (int i = 1; i < count; i++) {
+            if (values[i] != values[i - 1]) {
+                distinctCount++;
+            }
+        }
+
+        double[] bounds = new double[BUCKET_COUNT + 1];
+        for (int i = 0; i <= BUCKET_COUNT; i++) {
+            bounds[i] = values[(int) ((long) i * (count - 1) / BUCKET_COUNT)];
+        }
+
+        return new ColumnStatistics(values[0], values[count - 1], distinctCount, bounds);
+    }
+
+    /**
+     * Estimate the fraction of the values satisfying {@code value comparator val}.
+     *
+     * @param comparator comparator
+     * @param val value of {@code FilterConditionEntity}
+     * @return estimated fraction from {@code 0} to {@code 1}
+     */
+    public double selectivity(FilterComparator comparator, double val) {
+        if (distinctCount == 0) {
+            return 0;
+        }
+
+        double fraction;
+        switch (comparator) {
+            case GT:
+                fraction = 1 - fractionBelow(val) - fractionEqual(val);
+                break;
+            case GTE:
+                fraction = 1 - fractionBelow(val);
+                break;
+            case LT:
+                fraction = fractionBelow(val);
+                break;
+            case LTE:
+                fraction = fractionBelow(val) + fractionEqual(val);
+                break;
+            case EQ:
+                fraction = fractionEqual(val);
+                break;
+            default:
+                fraction = 1;
+        }
+
+        // Interpolation may overlap the values counted as equal
+        return Math.max(0, Math.min(1, fraction));
+    }
+
+    /**
+     * Estimate the fraction of the values less than {@code val}, interpolating in the bucket of {@code val}.
+     */
+    private double fractionBelow(double val) {
+        if (val <= min) {
+            return 0;
+        }
+        if (val > max) {
+            return 1;
+        }
+
+        // First bound not less than val, which is at least 1 as val > min
+        int i = 1;
+        while (bounds[i] < val) {
+            i++;
+        }
+
+        double width = bounds[i] - bounds[i - 1];
+        double inBucket = width == 0 ? 0 : (val - bounds[i - 1]) / width;
+
+        return Math.min(1, (i - 1 + inBucket) / BUCKET_COUNT);
+    }
+
+    /**
+     * Estimate the fraction of the values equal to {@code val}.
+     * Values spanning multiple buckets are counted by the buckets, and the others are assumed uniform.
+     */
+    private double fractionEqual(double val) {
+        if (val < min || val > max) {
+            return 0;
+        }
+
+        int spanned = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (bounds[i] == val && bounds[i + 1] == val) {
+                spanned++;
+            }
+        }
+
+        return Math.max((double) spanned / BUCKET_COUNT, 1.0 / distinctCount);
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public int getDistinctCount() {
+        return distinctCount;
+    }
+}
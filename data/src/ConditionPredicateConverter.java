@@ -1,46 +1,9 @@
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.Predicate;
 
 public class ConditionPredicateConverter {
-    /**
-     * Method to be called when comparing integers.
-     *
-     * @param comparator comparator
-     * @param onData value on the data to compare
-     * @param other value of {@code FilterConditionEntity}
-     * @return result of the comparison
-     */
-    private static boolean compare(FilterComparator comparator, int onData, int other) {
-        return compare(comparator, (double)onData, other);
-    }
-
-    /**
-     * Method to be called when comparing doubles.
-     *
-     * @param comparator comparator
-     * @param onData value on the data to compare
-     * @param other value of {@code FilterConditionEntity}
-     * @return result of the comparison
-     */
-    private static boolean compare(FilterComparator comparator, double onData, double other) {
-        switch (comparator) {
-            case GT:
-                return onData > other;
-            case GTE:
-                return onData >= other;
-            case LT:
-                return onData < other;
-            case LTE:
-                return onData <= other;
-            case EQ:
-                return onData == other;
-            default:
-                return false;
-        }
-    }
-
     /**
      * Method to be called when comparing strings.
      *
@@ -66,239 +29,247 @@ public class ConditionPredicateConverter {
         }
     }
 
-    /**
-     * Method to be called when comparing dates.
-     *
-     * @param comparator comparator
-     * @param onData value on the data to compare
-     * @param other value of {@code FilterConditionEntity}
-     * @return result of the comparison
-     */
-    private static boolean compare(FilterComparator comparator, LocalDate onData, LocalDate other) {
-        switch (comparator) {
-            case GT:
-                return onData.compareTo(other) > 0;
-            case GTE:
-                return onData.compareTo(other) >= 0;
-            case LT:
-                return onData.compareTo(other) < 0;
-            case LTE:
-                return onData.compareTo(other) <= 0;
-            case EQ:
-                return onData.compareTo(other) == 0;
-            default:
-                return true;
-        }
-    }
-
     /**
      * Convert a {@code FilterConditionEntity} which the parameter
      * is {@code FilterParameter.STATE} to {@code Predicate}.
      *
-     * @param entity {@code FilterConditionEntity} to be converted
+     * @param fc comparator of the entity
+     * @param val state of the entity. {@code null} if not found.
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertStateEntity(FilterConditionEntity entity) {
-        FilterComparator fc = entity.getComparator();
-
-        return entry -> {
-            State state = entry.getState();
-            State val = (State)entity.getVal();
+    private static Predicate<IDataRow> convertStateEntity(FilterComparator fc, State val) {
+        if (val == null) {
+            return IndexedPredicate.ofState(state -> false);
+        }
 
-            if (state == null) {
-                return false;
-            }
+        String abbr = val.getAbbr();
+        String name = val.getName();
 
-            return compare(fc, state.getAbbr(), val.getAbbr()) || compare(fc, state.getName(), val.getName());
-        };
+        return IndexedPredicate.ofState(
+                state -> compare(fc, state.getAbbr(), abbr) || compare(fc, state.getName(), name));
     }
 
     /**
      * Convert a {@code FilterConditionEntity} which the parameter
      * is {@code FilterParameter.COUNTY} to {@code Predicate}.
      *
-     * @param entity {@code FilterConditionEntity} to be converted
+     * @param fc comparator of the entity
+     * @param val county of the entity. {@code null} if not found.
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertCountyEntity(FilterConditionEntity entity) {
-        return entry -> {
-            County county = entry.getCounty();
-            County val = (County)entity.getVal();
+    private static Predicate<IDataRow> convertCountyEntity(FilterComparator fc, County val) {
+        if (val == null) {
+            return IndexedPredicate.ofCounty(county -> false);
+        }
 
-            if (county == null || val == null) {
-                return false;
-            }
+        String name = val.getName();
 
-            return compare(entity.getComparator(), county.getName(), val.getName());
-        };
+        return IndexedPredicate.ofCounty(county -> compare(fc, county.getName(), name));
     }
 
     /**
      * Convert a {@code FilterConditionEntity} which the parameter
      * is {@code FilterParameter.CONFIRMED} to {@code Predicate}.
      *
-     * @param entity {@code FilterConditionEntity} to be converted
+     * @param fc comparator of the entity
+     * @param val case count of the entity
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertConfirmedEntity(FilterConditionEntity entity) {
-        return entry -> compare(entity.getComparator(), entry.getConfirmed(), (int)entity.getVal());
+    private static Predicate<IDataRow> convertConfirmedEntity(FilterComparator fc, int val) {
+        return DataEntryPredicates.ofInt(IDataRow::getConfirmed, fc, val);
     }
 
     /**
      * Convert a {@code FilterConditionEntity} which the parameter
      * is {@code FilterParameter.FATAL} to {@code Predicate}.
      *
-     * @param entity {@code FilterConditionEntity} to be converted
+     * @param fc comparator of the entity
+     * @param val case count of the entity
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertFatalEntity(FilterConditionEntity entity) {
-        return entry -> compare(entity.getComparator(), entry.getFatal(), (int)entity.getVal());
+    private static Predicate<IDataRow> convertFatalEntity(FilterComparator fc, int val) {
+        return DataEntryPredicates.ofInt(IDataRow::getFatal, fc, val);
     }
 
     /**
      * Convert a {@code FilterConditionEntity} which the parameter
      * is {@code FilterParameter.CONFIRMED_PER100K} to {@code Predicate}.
      *
-     * @param entity {@code FilterConditionEntity} to be converted
+     * @param fc comparator of the entity
+     * @param val case rate of the entity
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertConfirmedPer100KEntity(FilterConditionEntity entity) {
-        return entry -> compare(entity.getComparator(), entry.getConfirmedPer100K(), (double)entity.getVal());
+    private static Predicate<IDataRow> convertConfirmedPer100KEntity(FilterComparator fc, double val) {
+        return DataEntryPredicates.ofDouble(IDataRow::getConfirmedPer100K, fc, val);
     }
 
     /**
      * Convert a {@code FilterConditionEntity} which the parameter
      * is {@code FilterParameter.FATAL_PER100K} to {@code Predicate}.
      *
-     * @param entity {@code FilterConditionEntity} to be converted
+     * @param fc comparator of the entity
+     * @param val case rate of the entity
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertFatalPer100KEntity(FilterConditionEntity entity) {
-        return entry -> compare(entity.getComparator(), entry.getFatalPer100K(), (double)entity.getVal());
+    private static Predicate<IDataRow> convertFatalPer100KEntity(FilterComparator fc, double val) {
+        return DataEntryPredicates.ofDouble(IDataRow::getFatalPer100K, fc, val);
     }
 
     /**
      * Convert a {@code FilterConditionEntity} which the parameter
      * is {@code FilterParameter.DEATH_RATE} to {@code Predicate}.
      *
-     * @param entity {@code FilterConditionEntity} to be converted
+     * @param fc comparator of the entity
+     * @param val death rate of the entity
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertDeathRateEntity(FilterConditionEntity entity) {
-        return entry -> compare(entity.getComparator(), entry.getDeathRatePercent(), (double)entity.getVal());
+    private static Predicate<IDataRow> convertDeathRateEntity(FilterComparator fc, double val) {
+        return DataEntryPredicates.ofDouble(IDataRow::getDeathRatePercent, fc, val);
     }
 
     /**
      * Convert a {@code FilterConditionEntity} which the parameter
      * is {@code FilterParameter.LATITUDE} to {@code Predicate}.
      *
-     * @param entity {@code FilterConditionEntity} to be converted
+     * @param fc comparator of the entity
+     * @param val latitude of the entity
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertLatitudeEntity(FilterConditionEntity entity) {
-        return entry -> {
-            County county = entry.getCounty();
-
-            if (county == null) {
-                return false;
-            }
-
-            return compare(entity.getComparator(), county.getLatitude(), (double)entity.getVal());
-        };
+    private static Predicate<IDataRow> convertLatitudeEntity(FilterComparator fc, double val) {
+        // NaN never matches the entries without the county
+        return DataEntryPredicates.ofDouble(
+                entry -> entry.getCounty() == null ? Double.NaN : entry.getCounty().getLatitude(), fc, val);
     }
 
     /**
      * Convert a {@code FilterConditionEntity} which the parameter
      * is {@code FilterParameter.LONGITUDE} to {@code Predicate}.
      *
-     * @param entity {@code FilterConditionEntity} to be converted
+     * @param fc comparator of the entity
+     * @param val longitude of the entity
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertLongitudeEntity(FilterConditionEntity entity) {
-        return entry -> {
-            County county = entry.getCounty();
-
-            if (county == null) {
-                return false;
-            }
-
-            return compare(entity.getComparator(), county.getLongitude(), (double)entity.getVal());
-        };
+    private static Predicate<IDataRow> convertLongitudeEntity(FilterComparator fc, double val) {
+        // NaN never matches the entries without the county
+        return DataEntryPredicates.ofDouble(
+                entry -> entry.getCounty() == null ? Double.NaN : entry.getCounty().getLongitude(), fc, val);
     }
 
     /**
      * Convert a {@code FilterConditionEntity} which the parameter
      * is {@code FilterParameter.ZIP_CODE} to {@code Predicate}.
      *
-     * @param entity {@code FilterConditionEntity} to be converted
+     * @param zipCode zip code of the entity
+     * @param unitedStates population data to resolve the counties from
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertZipCodeEntity(FilterConditionEntity entity) {
-        return entry -> {
-            County county = entry.getCounty();
-            int zipCode = (int)entity.getVal();
+    private static Predicate<IDataRow> convertZipCodeEntity(int zipCode, UnitedStates unitedStates) {
+        // Resolved once through the zip code index, so only the county is checked per entry
+        BitSet ids = new BitSet(unitedStates.getCountyCount());
+        for (County county : unitedStates.getCountiesByZip(zipCode)) {
+            ids.set(unitedStates.getCountyId(county));
+        }
+
+        // Counties of the other snapshots, such as the rows resolved before the population data is reloaded,
+        // are checked by their zip codes
+        return IndexedPredicate.ofCounty(county -> {
+            int id = unitedStates.getCountyId(county);
+            return id >= 0 ? ids.get(id) : county.hasZip(zipCode);
+        });
+    }
 
-            if (county == null) {
-                return false;
-            }
+    /**
+     * Convert a {@code FilterConditionEntity} which the parameter
+     * is {@code FilterParameter.WITHIN} to {@code Predicate}.
+     *
+     * @param radius radius area of the entity
+     * @param unitedStates population data to resolve the counties from
+     * @return {@code Predicate} to be used to filter data
+     */
+    private static Predicate<IDataRow> convertWithinEntity(GeoRadius radius, UnitedStates unitedStates) {
+        // Resolved once through the spatial index, so only the county is checked per entry
+        List<County> counties = unitedStates.getCountiesWithin(radius);
+        BitSet ids = new BitSet(unitedStates.getCountyCount());
+        for (County county : counties) {
+            ids.set(unitedStates.getCountyId(county));
+        }
 
-            return county.getZips().contains(zipCode);
-        };
+        // Counties of the other snapshots, such as the rows resolved before the population data is reloaded,
+        // are checked by their coordinates
+        return IndexedPredicate.ofCounty(county -> {
+            int id = unitedStates.getCountyId(county);
+            return id >= 0 ? ids.get(id) : radius.contains(county.getLatitude(), county.getLongitude());
+        });
     }
 
     /**
      * Convert a {@code FilterConditionEntity} which the parameter
      * is {@code FilterParameter.DATE} to {@code Predicate}.
      *
-     * @param entity {@code FilterConditionEntity} to be converted
+     * @param fc comparator of the entity
+     * @param val date of the entity
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertDateEntity(FilterConditionEntity entity) {
-        return entry -> {
-            LocalDate dateOnData = entry.getDate();
-            LocalDate dateToCompare;
-            try {
-                dateToCompare = (LocalDate)entity.getVal();
-            } catch (DateTimeParseException ignored) {
-                return false;
-            }
+    private static Predicate<IDataRow> convertDateEntity(FilterComparator fc, LocalDate val) {
+        int epochDay = (int) val.toEpochDay();
 
-            return compare(entity.getComparator(), dateOnData, dateToCompare);
-        };
+        // Every comparison is a range of the dates, looked up from the sorted index of the dates
+        switch (fc) {
+            case GT:
+                return IndexedPredicate.ofEpochDays(epochDay + 1, Integer.MAX_VALUE);
+            case GTE:
+                return IndexedPredicate.ofEpochDays(epochDay, Integer.MAX_VALUE);
+            case LT:
+                return IndexedPredicate.ofEpochDays(Integer.MIN_VALUE, epochDay - 1);
+            case LTE:
+                return IndexedPredicate.ofEpochDays(Integer.MIN_VALUE, epochDay);
+            case EQ:
+                return IndexedPredicate.ofEpochDays(epochDay, epochDay);
+            default:
+                return entry -> true;
+        }
     }
 
     /**
      * Convert a {@code FilterConditionEntity} to {@code Predicate}.
+     * <p>
+     * The returned predicate only refers to {@code val}, which is casted only once by the caller.
      *
      * @param entity {@code FilterConditionEntity} to be converted
+     * @param val value of {@code entity} casted by {@code FilterConditionEntity.getVal(UnitedStates)}
+     * @param unitedStates population data to resolve the locations from
      * @return {@code Predicate} to be used to filter data
      */
-    private static Predicate<DataEntry> convertEntity(FilterConditionEntity entity) throws FilterSyntaxError {
+    static Predicate<IDataRow> convertEntity(FilterConditionEntity entity, Object val, UnitedStates unitedStates)
+            throws FilterSyntaxError {
         FilterParameter fp = entity.getParameter();
+        FilterComparator fc = entity.getComparator();
 
         switch (fp) {
             case STATE:
-                return convertStateEntity(entity);
+                return convertStateEntity(fc, (State)val);
             case COUNTY:
-                return convertCountyEntity(entity);
+                return convertCountyEntity(fc, (County)val);
             case CONFIRMED:
-                return convertConfirmedEntity(entity);
+                return convertConfirmedEntity(fc, (int)val);
             case FATAL:
-                return convertFatalEntity(entity);
+                return convertFatalEntity(fc, (int)val);
             case CONFIRMED_PER100K:
-                return convertConfirmedPer100KEntity(entity);
+                return convertConfirmedPer100KEntity(fc, (double)val);
             case FATAL_PER100K:
-                return convertFatalPer100KEntity(entity);
+                return convertFatalPer100KEntity(fc, (double)val);
             case DEATH_RATE:
-                return convertDeathRateEntity(entity);
+                return convertDeathRateEntity(fc, (double)val);
             case LATITUDE:
-                return convertLatitudeEntity(entity);
+                return convertLatitudeEntity(fc, (double)val);
             case LONGITUDE:
-                return convertLongitudeEntity(entity);
+                return convertLongitudeEntity(fc, (double)val);
             case ZIP_CODE:
-                return convertZipCodeEntity(entity);
+                return convertZipCodeEntity((int)val, unitedStates);
+            case WITHIN:
+                return convertWithinEntity((GeoRadius)val, unitedStates);
             case DATE:
-                return convertDateEntity(entity);
+                return convertDateEntity(fc, (LocalDate)val);
             default:
                 throw new FilterSyntaxError(FilterSyntaxErrorReason.FILTER_PARAMETER_NOT_HANDLED, fp.toString());
         }
@@ -306,23 +277,15 @@ public class ConditionPredicateConverter {
 
     /**
      * Convert the {@code FilterCondition} to be a {@code Predicate} which can be used to filter.
+     * <p>
+     * The locations in the condition are resolved from the snapshot of {@code UnitedStates.current()} at this point,
+     * so the predicate is not affected by reloading the population data.
      *
      * @param condition condition to filter the data
      * @return a {@code Predicate} ready to be used to filter the data
+     * @see FilterPlan#compile(FilterCondition)
      */
     public static Predicate<DataEntry> convert(FilterCondition condition) throws FilterSyntaxError {
-        Predicate<DataEntry> predicateOR = e -> condition.getConditions().size() == 0;
-
-        for (List<FilterConditionEntity> entitiesOR : condition.getConditions()) {
-            Predicate<DataEntry> predicateAND = e -> true;
-
-            for (FilterConditionEntity entitiesAND : entitiesOR) {
-                predicateAND = predicateAND.and(convertEntity(entitiesAND));
-            }
-
-            predicateOR = predicateOR.or(predicateAND);
-        }
-
-        return predicateOR;
+        return FilterPlan.compile(condition);
     }
 }
@@ -0,0 +1,182 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregates the data entries into the daily case counts in a single pass.
+ * <p>
+ * Only the sums per date and the distinct counties are kept, so the entries do not need to be retained.
+ * Memory usage depends on the count of the dates and the counties, not on the count of the entries.
+ * <p>
+ * Distinct counties are tracked in a bitset of their IDs in the snapshot of {@code UnitedStates}
+ * current when the aggregator is created, so the counties of that snapshot are not hashed.
+ * <p>
+ * An instance is not thread-safe. Parallel aggregation fills one aggregator per range and merges them.
+ */
+public class DailyCaseAggregator {
+    private final TreeMap<LocalDate, Integer> confirmedCount = new TreeMap<>();
+    private final TreeMap<LocalDate, Integer> fatalCount = new TreeMap<>();
+    private final UnitedStates unitedStates = UnitedStates.current();
+    private final BitSet countyIds = new BitSet();
+    private final List<County> counties = new ArrayList<>();
+
+    // Counties not in the snapshot do not have IDs
+    private final Set<County> countiesWithoutId = new HashSet<>();
+
+    private int population;
+    private long entryCount;
+
+    /**
+     * Get a {@code Collector} aggregating the data entries.
+     *
+     * @return collector aggregating the data entries into a {@code DailyCaseAggregator}
+     */
+    public static Collector<DataEntry, ?, DailyCaseAggregator> collector() {
+        return Collector.of(DailyCaseAggregator::new, DailyCaseAggregator::add, DailyCaseAggregator::merge);
+    }
+
+    /**
+     * Add the counts and the location of {@code entry}.
+     *
+     * @param entry entry to be added
+     * @return if the total population has been changed
+     */
+    public boolean add(DataEntry entry) {
+        return add(entry.getDate(), entry.getCounty(), entry.getConfirmed(), entry.getFatal());
+    }
+
+    /**
+     * Add the counts and the location of an entry given by its fields.
+     *
+     * @param date date of the entry
+     * @param county county of the entry, {@code null} if not recorded
+     * @param confirmed confirmed case count of the entry
+     * @param fatal fatal case count of the entry
+     * @return if the total population has been changed
+     */
+    public boolean add(LocalDate date, County county, int confirmed, int fatal) {
+        confirmedCount.merge(date, confirmed, Integer::sum);
+        fatalCount.merge(date, fatal, Integer::sum);
+        entryCount++;
+
+        return addCounty(county);
+    }
+
+    /**
+     * Merge the counts and the locations of {@code other} into this aggregator.
+     *
+     * @param other aggregator to be merged
+     * @return this aggregator
+     */
+    public DailyCaseAggregator merge(DailyCaseAggregator other) {
+        other.confirmedCount.forEach((date, count) -> confirmedCount.merge(date, count, Integer::sum));
+        other.fatalCount.forEach((date, count) -> fatalCount.merge(date, count, Integer::sum));
+        other.counties.forEach(this::addCounty);
+        entryCount += other.entryCount;
+
+        return this;
+    }
+
+    private boolean addCounty(County county) {
+        if (county == null) {
+            return false;
+        }
+
+        int id = unitedStates.getCountyId(county);
+        if (id >= 0) {
+            if (countyIds.get(id)) {
+                return false;
+            }
+            countyIds.set(id);
+        } else if (!countiesWithoutId.add(county)) {
+            return false;
+        }
+
+        counties.add(county);
+        population += county.getPopulation();
+
+        return true;
+    }
+
+    /**
+     * Create the daily counts of {@code date}. The difference is calculated against the previous day.
+     *
+     * @param date date of the counts
+     * @return daily counts of {@code date}
+     */
+    public DailyCaseCounts dailyCounts(LocalDate date) {
+        int confirmed = confirmedCount.getOrDefault(date, 0);
+        int confirmedDiff = confirmed - confirmedCount.getOrDefault(date.minusDays(1), 0);
+        int fatal = fatalCount.getOrDefault(date, 0);
+        int fatalDiff = fatal - fatalCount.getOrDefault(date.minusDays(1), 0);
+        return new DailyCaseCounts(date, confirmed, confirmedDiff, fatal, fatalDiff, population);
+    }
+
+    /**
+     * Create the daily stats of all aggregated dates.
+     *
+     * @return daily stats of the aggregated entries
+     */
+    public DailyCaseStats toDailyCaseStats() {
+        return new DailyCaseStats(confirmedCount.keySet()
+                .stream()
+                .map(this::dailyCounts)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Check if any entry of {@code date} has been aggregated.
+     *
+     * @param date date to be checked
+     * @return if any entry of {@code date} has been aggregated
+     */
+    public boolean hasDate(LocalDate date) {
+        return confirmedCount.containsKey(date);
+    }
+
+    /**
+     * Get the list of the aggregated dates in sorted order (ASC).
+     *
+     * @return sorted list of dates
+     */
+    public List<LocalDate> sortedListOfDates() {
+        return new ArrayList<>(confirmedCount.keySet());
+    }
+
+    /**
+     * Get the earliest aggregated date.
+     *
+     * @return earliest date. {@code null} if nothing has been aggregated.
+     */
+    public LocalDate getFirstDate() {
+        return confirmedCount.isEmpty() ? null : confirmedCount.firstKey();
+    }
+
+    /**
+     * Get the latest aggregated date.
+     *
+     * @return latest date. {@code null} if nothing has been aggregated.
+     */
+    public LocalDate getLastDate() {
+        return confirmedCount.isEmpty() ? null : confirmedCount.lastKey();
+    }
+
+    /**
+     * Get the total population of all distinct counties of the aggregated entries.
+     *
+     * @return total population of the aggregated entries' location
+     */
+    public int getPopulation() {
+        return population;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+}
@@ -7,6 +7,8 @@ import javafx.util.Callback;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -23,6 +25,23 @@ public class DailyCaseStats implements IGUITableDataCollection<DailyCaseCounts>,
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Insert {@code counts} keeping the date order. Counts of the same date are replaced.
+     *
+     * @param counts counts to be inserted
+     */
+    public void putAll(Collection<DailyCaseCounts> counts) {
+        counts.forEach(count -> {
+            int idx = Collections.binarySearch(this.caseCounts, count, DailyCaseCounts.cmpDate);
+
+            if (idx >= 0) {
+                this.caseCounts.set(idx, count);
+            } else {
+                this.caseCounts.add(-idx - 1, count);
+            }
+        });
+    }
+
     /**
      * Get the latest {@code DailyCaseCount}.
      * Return {@code null} if no corresponding {@code DailyCaseCount}.
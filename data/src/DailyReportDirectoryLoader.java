@@ -0,0 +1,341 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Loads the directory of the JHU CSSE daily report files ({@code csse_covid_19_daily_reports}).
+ * <p>
+ * Each file is named as {@code MM-dd-yyyy.csv} and holds the case counts of all locations of that day.
+ * The columns are detected from the header of each file, since the format has changed several times.
+ * Only the rows located in the US are loaded.
+ * <p>
+ * Parsed files are cached by their last modified time and the version of {@code UnitedStates} resolved against,
+ * so loading the directory again only parses the files which are new or modified,
+ * or all files if the population data has been reloaded.
+ */
+public class DailyReportDirectoryLoader implements IAppendedDataReader {
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("MM-dd-yyyy");
+    private static final String FILE_EXTENSION = ".csv";
+
+    private static final String COUNTRY_US = "US";
+
+    /**
+     * State names used by the legacy files which cannot be resolved directly.
+     */
+    private static final Map<String, String> STATE_ALIASES = new HashMap<>() {{
+        put("D.C.", "DC");
+        put("Chicago", "IL");
+    }};
+
+    private final Path directory;
+    private final Map<Path, ReportFile> cache = new HashMap<>();
+
+    private IngestRejectionReport report = new IngestRejectionReport();
+
+    /**
+     * @param directory path of the directory containing the daily report files
+     */
+    public DailyReportDirectoryLoader(String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Load all daily report files in the directory in date order.
+     * <p>
+     * Files are parsed in parallel. Files not modified since the last load are not parsed again.
+     * <p>
+     * Line numbers in {@code report} are counted across the files in date order.
+     *
+     * @param report report to record the rejected lines. Lines read by {@code readAppended()} are merged into this.
+     * @return data entries of all files in date order
+     * @throws IOException thrown if failed to read the directory or any of the files
+     */
+    public List<DataEntry> loadAll(IngestRejectionReport report) throws IOException {
+        UnitedStates unitedStates = UnitedStates.current();
+        List<ReportFile> files = scan();
+
+        parseStale(files, unitedStates);
+
+        // Forget the deleted files
+        cache.values().retainAll(files);
+
+        List<DataEntry> entries = new ArrayList<>();
+        for (ReportFile file : files) {
+            entries.addAll(file.entries);
+            report.merge(file.report);
+        }
+
+        this.report = report;
+
+        return entries;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the daily report files added after the last load are parsed.
+     * Rejected lines are merged into the report given to {@code loadAll()}.
+     */
+    @Override
+    public List<DataEntry> readAppended() throws IOException {
+        UnitedStates unitedStates = UnitedStates.current();
+        List<ReportFile> files = scan();
+
+        if (cache.values().stream()
+                .anyMatch(file -> !files.contains(file) || file.version != unitedStates.getVersion())) {
+            // Some of the loaded files have been modified or deleted, or the population data has been reloaded
+            return null;
+        }
+
+        List<ReportFile> added = files.stream()
+                .filter(file -> file.entries == null)
+                .collect(Collectors.toList());
+
+        parseStale(added, unitedStates);
+
+        List<DataEntry> entries = new ArrayList<>();
+        for (ReportFile file : added) {
+            entries.addAll(file.entries);
+            report.merge(file.report);
+        }
+
+        return entries;
+    }
+
+    /**
+     * List the daily report files in the directory in date order.
+     * <p>
+     * Cached file is returned if the file has not been modified since it was cached.
+     */
+    private List<ReportFile> scan() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            List<ReportFile> files = new ArrayList<>();
+
+            for (Path path : paths.collect(Collectors.toList())) {
+                LocalDate date = dateOf(path);
+                if (date == null || !Files.isRegularFile(path)) {
+                    continue;
+                }
+
+                long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+                ReportFile cached = cache.get(path);
+                if (cached != null && cached.lastModified == lastModified) {
+                    files.add(cached);
+                } else {
+                    files.add(new ReportFile(path, date, lastModified));
+                }
+            }
+
+            files.sort((a, b) -> a.date.compareTo(b.date));
+
+            return files;
+        }
+    }
+
+    /**
+     * Parse the files not parsed yet against {@code unitedStates} in parallel and cache them.
+     */
+    private void parseStale(List<ReportFile> files, UnitedStates unitedStates) throws IOException {
+        LocalDate today = LocalDate.now();
+
+        List<ReportFile> stale = files.stream()
+                .filter(file -> file.entries == null || file.version != unitedStates.getVersion())
+                .collect(Collectors.toList());
+
+        try {
+            stale.parallelStream().forEach(file -> {
+                try {
+                    file.parse(unitedStates, today);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        stale.forEach(file -> cache.put(file.path, file));
+    }
+
+    /**
+     * Get the date of the daily report file at {@code path} from its file name.
+     *
+     * @return date of the file. {@code null} if the file is not a daily report file.
+     */
+    private static LocalDate dateOf(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.endsWith(FILE_EXTENSION)) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(name.substring(0, name.length() - FILE_EXTENSION.length()), FILE_NAME_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Index of each column of a daily report file. {@code -1} if the column does not exist.
+     */
+    private static class Header {
+        private int state = -1;
+        private int country = -1;
+        private int county = -1;
+        private int confirmed = -1;
+        private int fatal = -1;
+
+        /**
+         * Detect the columns from the header row.
+         */
+        private static Header parse(DataRowTokenizer row) {
+            Header header = new Header();
+
+            for (int i = 0; i < row.getFieldCount(); i++) {
+                String name = row.getString(i).toLowerCase();
+
+                if (name.contains("state")) {
+                    header.state = i;
+                } else if (name.contains("country")) {
+                    header.country = i;
+                } else if (name.contains("admin2")) {
+                    header.county = i;
+                } else if (name.contains("confirm")) {
+                    header.confirmed = i;
+                } else if (name.contains("death")) {
+                    header.fatal = i;
+                }
+            }
+
+            return header;
+        }
+
+        private boolean isValid() {
+            return state >= 0 && country >= 0 && confirmed >= 0;
+        }
+    }
+
+    /**
+     * A single daily report file and its parsed result.
+     */
+    private static class ReportFile {
+        private final Path path;
+        private final LocalDate date;
+        private final long lastModified;
+
+        private List<DataEntry> entries;
+        private IngestRejectionReport report;
+
+        /**
+         * Version of {@code UnitedStates} the entries are resolved against.
+         */
+        private long version;
+
+        ReportFile(Path path, LocalDate date, long lastModified) {
+            this.path = path;
+            this.date = date;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Parse the file resolving the locations against {@code unitedStates}.
+         * Rows which are not located in the US are skipped.
+         */
+        private void parse(UnitedStates unitedStates, LocalDate today) throws IOException {
+            List<DataEntry> entries = new ArrayList<>();
+            IngestRejectionReport report = new IngestRejectionReport();
+
+            byte[] content = Files.readAllBytes(path);
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            DataRowTokenizer row = new DataRowTokenizer();
+            LocationResolver resolver = new LocationResolver(unitedStates);
+
+            Header header = null;
+            int lineStart = 0;
+
+            for (int pos = 0; pos <= content.length; pos++) {
+                if (pos < content.length && content[pos] != '\n') {
+                    continue;
+                }
+
+                int lineEnd = pos > lineStart && content[pos - 1] == '\r' ? pos - 1 : pos;
+
+                if (lineEnd > lineStart) {
+                    row.reset(buffer, lineStart, lineEnd);
+
+                    if (header == null) {
+                        header = Header.parse(row);
+                        if (!header.isValid()) {
+                            throw new IOException(String.format("Unrecognized header of the daily report: %s", path));
+                        }
+                        report.skip();
+                    } else {
+                        entries.add(parseRow(row, header, resolver, today, report));
+                    }
+                } else if (pos < content.length || pos > lineStart) {
+                    report.skip();
+                }
+
+                lineStart = pos + 1;
+            }
+
+            this.entries = entries.stream().filter(Objects::nonNull).collect(Collectors.toList());
+            this.report = report;
+            this.version = unitedStates.getVersion();
+        }
+
+        /**
+         * Parse a single row of the file.
+         *
+         * @return parsed data entry. {@code null} if the row is invalid or not located in the US.
+         */
+        private DataEntry parseRow(DataRowTokenizer row, Header header, LocationResolver resolver,
+                                   LocalDate today, IngestRejectionReport report) {
+            if (row.getFieldCount() <= header.confirmed) {
+                report.reject(DataEntryStatus.MALFORMED_LINE, report.getLineCount() + 1);
+                return null;
+            }
+
+            String country = row.getString(header.country).strip();
+            String state = row.getString(header.state).strip();
+
+            // Recovered cases are counted as a separated row
+            if (!country.equals(COUNTRY_US) || state.toLowerCase().contains("recovered")) {
+                report.skip();
+                return null;
+            }
+
+            String county = header.county < 0 ? "" : row.getString(header.county).strip();
+
+            // Legacy files do not have the county column, and store the location as "County, State"
+            int splitter = state.indexOf(", ");
+            if (splitter >= 0) {
+                county = state.substring(0, splitter).replace("County", "").strip();
+                state = state.substring(splitter + 2).strip();
+            }
+
+            state = STATE_ALIASES.getOrDefault(state, state.replace("(From Diamond Princess)", "").strip());
+
+            return DataEntryFileProcessor.parse(
+                    date,
+                    resolver.resolve(county, state),
+                    row.getInt(header.confirmed, 0),
+                    header.fatal < 0 ? 0 : row.getInt(header.fatal, 0),
+                    today, report, report.getLineCount() + 1);
+        }
+    }
+}
@@ -0,0 +1,571 @@
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Columnar store of the data entries.
+ * <p>
+ * Each field of the entries is kept in a parallel primitive array indexed by the row:
+ * epoch day, state ID, county ID, confirmed and fatal.
+ * The IDs refer to the dictionaries of the states and the counties in this store,
+ * and the values per 100K residents are derived from the populations of the dictionaries on demand.
+ * <p>
+ * Filtering scans the arrays and produces a selection vector, which is the sorted array of the matching rows.
+ * {@code DataEntry} objects are created only when the rows are accessed as the entries.
+ * <p>
+ * The rows of each state, each county and each date are indexed in {@code RowBitmap},
+ * maintained as the rows are added. Predicates on the locations are evaluated once per location
+ * of the dictionaries, and then answered by merging the bitmaps of the matching locations.
+ * The bitmaps of the dates are kept sorted by the date, so a date range is looked up by a binary search
+ * and only the bitmaps of the dates in the range are merged.
+ * <p>
+ * An instance is not thread-safe while rows are added. Reading from multiple threads is safe afterwards.
+ */
+public class DataColumns {
+    /**
+     * County ID of the rows without the county.
+     */
+    public static final int NO_COUNTY = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Statistics are collected again once the rows have grown by this ratio since collected.
+     */
+    private static final double STATISTICS_GROWTH = 1.25;
+
+    private int[] epochDays;
+    private int[] stateIds;
+    private int[] countyIds;
+    private int[] confirmed;
+    private int[] fatal;
+    private int size;
+
+    // Dictionaries of the locations. IDs are the indices.
+    private final List<State> states;
+    private final List<County> counties;
+    private final Map<State, Integer> stateIdMap;
+    private final Map<County, Integer> countyIdMap;
+    private int[] statePopulations;
+    private int[] countyPopulations;
+
+    // Bitmap indexes of the rows
+    private final List<RowBitmap> stateRows;
+    private final List<RowBitmap> countyRows;
+    private final NavigableMap<Integer, RowBitmap> dateRows;
+
+    private DataStatistics statistics;
+
+    public DataColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param capacity initial count of the rows which can be added without growing the arrays
+     */
+    public DataColumns(int capacity) {
+        capacity = Math.max(capacity, 1);
+
+        this.epochDays = new int[capacity];
+        this.stateIds = new int[capacity];
+        this.countyIds = new int[capacity];
+        this.confirmed = new int[capacity];
+        this.fatal = new int[capacity];
+
+        this.states = new ArrayList<>();
+        this.counties = new ArrayList<>();
+        this.stateIdMap = new IdentityHashMap<>();
+        this.countyIdMap = new IdentityHashMap<>();
+        this.statePopulations = new int[INITIAL_CAPACITY];
+        this.countyPopulations = new int[INITIAL_CAPACITY];
+
+        this.stateRows = new ArrayList<>();
+        this.countyRows = new ArrayList<>();
+        this.dateRows = new TreeMap<>();
+    }
+
+    /**
+     * Create the columns of {@code entries}, skipping {@code null}.
+     *
+     * @param entries data entries
+     * @return columns containing the entries in the order of {@code entries}
+     */
+    public static DataColumns of(Stream<DataEntry> entries) {
+        DataColumns columns = new DataColumns();
+        entries.forEachOrdered(entry -> {
+            if (entry != null) {
+                columns.add(entry);
+            }
+        });
+
+        return columns;
+    }
+
+    /**
+     * Add {@code entry} as the last row.
+     *
+     * @param entry data entry to be added
+     */
+    public void add(DataEntry entry) {
+        addRow(entry.getEpochDay(),
+                stateId(entry.getState()),
+                entry.getCounty() == null ? NO_COUNTY : countyId(entry.getCounty()),
+                entry.getConfirmed(),
+                entry.getFatal());
+    }
+
+    private void addRow(int epochDay, int stateId, int countyId, int confirmed, int fatal) {
+        if (size == epochDays.length) {
+            int capacity = size * 2;
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            stateIds = Arrays.copyOf(stateIds, capacity);
+            countyIds = Arrays.copyOf(countyIds, capacity);
+            this.confirmed = Arrays.copyOf(this.confirmed, capacity);
+            this.fatal = Arrays.copyOf(this.fatal, capacity);
+        }
+
+        epochDays[size] = epochDay;
+        stateIds[size] = stateId;
+        countyIds[size] = countyId;
+        this.confirmed[size] = confirmed;
+        this.fatal[size] = fatal;
+
+        stateRows.get(stateId).add(size);
+        if (countyId != NO_COUNTY) {
+            countyRows.get(countyId).add(size);
+        }
+        dateRows.computeIfAbsent(epochDay, day -> new RowBitmap()).add(size);
+
+        size++;
+    }
+
+    /**
+     * Get the ID of {@code state}, adding it to the dictionary if new.
+     */
+    private int stateId(State state) {
+        Integer id = stateIdMap.get(state);
+        if (id != null) {
+            return id;
+        }
+
+        id = states.size();
+        states.add(state);
+        stateIdMap.put(state, id);
+
+        if (id == statePopulations.length) {
+            statePopulations = Arrays.copyOf(statePopulations, id * 2);
+        }
+        statePopulations[id] = state.getPopulation();
+        stateRows.add(new RowBitmap());
+
+        return id;
+    }
+
+    /**
+     * Get the ID of {@code county}, adding it to the dictionary if new.
+     */
+    private int countyId(County county) {
+        Integer id = countyIdMap.get(county);
+        if (id != null) {
+            return id;
+        }
+
+        id = counties.size();
+        counties.add(county);
+        countyIdMap.put(county, id);
+
+        if (id == countyPopulations.length) {
+            countyPopulations = Arrays.copyOf(countyPopulations, id * 2);
+        }
+        countyPopulations[id] = county.getPopulation();
+        countyRows.add(new RowBitmap());
+
+        return id;
+    }
+
+    /**
+     * Create the columns containing only the rows in {@code selection}.
+     *
+     * @param selection sorted rows to be selected
+     * @return columns containing the selected rows in the order of {@code selection}
+     */
+    public DataColumns select(int[] selection) {
+        DataColumns selected = new DataColumns(selection.length);
+
+        for (int row : selection) {
+            selected.addRow(epochDays[row],
+                    selected.stateId(states.get(stateIds[row])),
+                    countyIds[row] == NO_COUNTY ? NO_COUNTY : selected.countyId(counties.get(countyIds[row])),
+                    confirmed[row],
+                    fatal[row]);
+        }
+
+        return selected;
+    }
+
+    /**
+     * Create the selection vector of all rows.
+     *
+     * @return rows from {@code 0} to {@code size() - 1}
+     */
+    public int[] allRows() {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+
+        return rows;
+    }
+
+    /**
+     * Get the rows of which the state matches {@code predicate}.
+     * <p>
+     * {@code predicate} is tested once per state in this store, not per row.
+     *
+     * @param predicate predicate of the state
+     * @return bitmap of the rows, which must not be modified
+     */
+    public RowBitmap rowsOfStates(Predicate<State> predicate) {
+        List<RowBitmap> matched = new ArrayList<>();
+        for (int id = 0; id < states.size(); id++) {
+            if (predicate.test(states.get(id))) {
+                matched.add(stateRows.get(id));
+            }
+        }
+
+        return RowBitmap.union(matched);
+    }
+
+    /**
+     * Get the rows of which the county matches {@code predicate}. Rows without the county never match.
+     * <p>
+     * {@code predicate} is tested once per county in this store, not per row.
+     *
+     * @param predicate predicate of the county
+     * @return bitmap of the rows, which must not be modified
+     */
+    public RowBitmap rowsOfCounties(Predicate<County> predicate) {
+        List<RowBitmap> matched = new ArrayList<>();
+        for (int id = 0; id < counties.size(); id++) {
+            if (predicate.test(counties.get(id))) {
+                matched.add(countyRows.get(id));
+            }
+        }
+
+        return RowBitmap.union(matched);
+    }
+
+    /**
+     * Get the rows of the date {@code epochDay}.
+     *
+     * @param epochDay epoch day of the date
+     * @return bitmap of the rows, which must not be modified
+     */
+    public RowBitmap rowsOfEpochDay(int epochDay) {
+        return dateRows.getOrDefault(epochDay, RowBitmap.empty());
+    }
+
+    /**
+     * Get the rows of the dates from {@code fromEpochDay} to {@code toEpochDay}, both inclusive.
+     *
+     * @param fromEpochDay epoch day of the first date
+     * @param toEpochDay epoch day of the last date
+     * @return bitmap of the rows, which must not be modified. Empty if {@code fromEpochDay > toEpochDay}.
+     */
+    public RowBitmap rowsOfEpochDays(int fromEpochDay, int toEpochDay) {
+        if (fromEpochDay > toEpochDay) {
+            return RowBitmap.empty();
+        }
+
+        return RowBitmap.union(dateRows.subMap(fromEpochDay, true, toEpochDay, true).values());
+    }
+
+    /**
+     * Get the statistics of the rows, collecting them if not collected yet or the rows have grown much since.
+     *
+     * @return statistics of the rows
+     */
+    public synchronized DataStatistics getStatistics() {
+        if (statistics == null || size > statistics.getRowCount() * STATISTICS_GROWTH) {
+            statistics = DataStatistics.of(this);
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Add the counts and the locations of all rows to {@code aggregator}.
+     *
+     * @param aggregator aggregator to add the rows to
+     */
+    public void aggregate(DailyCaseAggregator aggregator) {
+        LocalDate date = null;
+
+        for (int row = 0; row < size; row++) {
+            // Rows of the same date are usually adjacent
+            if (date == null || date.toEpochDay() != epochDays[row]) {
+                date = LocalDate.ofEpochDay(epochDays[row]);
+            }
+
+            aggregator.add(date, getCounty(row), confirmed[row], fatal[row]);
+        }
+    }
+
+    /**
+     * Create the data entry of {@code row}.
+     * <p>
+     * Entries created for the same row of the same columns are equal to each other.
+     *
+     * @param row row of the entry
+     * @return data entry created from the columns
+     */
+    public DataEntry entry(int row) {
+        return new RowEntry(this, row);
+    }
+
+    /**
+     * Get the rows as a list of the data entries. Each entry is created when it is accessed.
+     * <p>
+     * Entries got from the same row are equal, so {@code indexOf()} and {@code contains()} find the rows.
+     *
+     * @return read-only list of the entries, reflecting the rows added later
+     */
+    public List<DataEntry> entries() {
+        return new EntryList();
+    }
+
+    /**
+     * Get a cursor to read the rows through {@code IDataRow}.
+     * <p>
+     * A cursor is not thread-safe. Each thread should get its own cursor.
+     *
+     * @return cursor at the row {@code 0}
+     */
+    public Row cursor() {
+        return new Row();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return count of the distinct states in the rows
+     */
+    public int getStateCount() {
+        return states.size();
+    }
+
+    /**
+     * @return count of the distinct counties in the rows
+     */
+    public int getCountyCount() {
+        return counties.size();
+    }
+
+    // region Accessors of the rows
+    public int getEpochDay(int row) {
+        return epochDays[row];
+    }
+
+    public int getStateId(int row) {
+        return stateIds[row];
+    }
+
+    /**
+     * @return ID of the county of {@code row}, {@code NO_COUNTY} if not recorded
+     */
+    public int getCountyId(int row) {
+        return countyIds[row];
+    }
+
+    public State getState(int row) {
+        return states.get(stateIds[row]);
+    }
+
+    public County getCounty(int row) {
+        return countyIds[row] == NO_COUNTY ? null : counties.get(countyIds[row]);
+    }
+
+    public int getConfirmed(int row) {
+        return confirmed[row];
+    }
+
+    public int getFatal(int row) {
+        return fatal[row];
+    }
+
+    /**
+     * Get the population of the location of {@code row}.
+     *
+     * @return population of the county, or of the state if the county is not recorded
+     */
+    public int getPopulation(int row) {
+        return countyIds[row] == NO_COUNTY ? statePopulations[stateIds[row]] : countyPopulations[countyIds[row]];
+    }
+
+    /**
+     * Calculated in the same way as {@code DataEntry}.
+     *
+     * @return confirmed cases per 100K residents, {@code -1} if the population is {@code 0}
+     */
+    public double getConfirmedPer100K(int row) {
+        int population = getPopulation(row);
+        return population == 0 ? -1 : confirmed[row] / (double) population * 100000;
+    }
+
+    /**
+     * Calculated in the same way as {@code DataEntry}.
+     *
+     * @return fatal cases per 100K residents, {@code -1} if the population is {@code 0}
+     */
+    public double getFatalPer100K(int row) {
+        int population = getPopulation(row);
+        return population == 0 ? -1 : fatal[row] / (double) population * 100000;
+    }
+
+    public double getDeathRatePercent(int row) {
+        return fatal[row] == 0 ? 0 : fatal[row] / (double) confirmed[row] * 100;
+    }
+    // endregion
+
+    /**
+     * Cursor reading a row of the columns as {@code IDataRow} without creating {@code DataEntry}.
+     */
+    public class Row implements IDataRow {
+        private int row;
+
+        private Row() {}
+
+        /**
+         * Move this cursor to {@code row}.
+         *
+         * @param row row to be read
+         * @return this cursor
+         */
+        public Row moveTo(int row) {
+            this.row = row;
+            return this;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        @Override
+        public int getEpochDay() {
+            return epochDays[row];
+        }
+
+        @Override
+        public State getState() {
+            return DataColumns.this.getState(row);
+        }
+
+        @Override
+        public County getCounty() {
+            return DataColumns.this.getCounty(row);
+        }
+
+        @Override
+        public int getConfirmed() {
+            return confirmed[row];
+        }
+
+        @Override
+        public int getFatal() {
+            return fatal[row];
+        }
+
+        @Override
+        public double getConfirmedPer100K() {
+            return DataColumns.this.getConfirmedPer100K(row);
+        }
+
+        @Override
+        public double getFatalPer100K() {
+            return DataColumns.this.getFatalPer100K(row);
+        }
+
+        @Override
+        public double getDeathRatePercent() {
+            return DataColumns.this.getDeathRatePercent(row);
+        }
+    }
+
+    /**
+     * Data entry created from a row, equal to the entries created from the same row of the same columns.
+     */
+    private static class RowEntry extends DataEntry {
+        private final DataColumns columns;
+        private final int row;
+
+        RowEntry(DataColumns columns, int row) {
+            super(LocalDate.ofEpochDay(columns.epochDays[row]), columns.getState(row), columns.getCounty(row),
+                    columns.confirmed[row], columns.fatal[row], columns.getPopulation(row));
+            this.columns = columns;
+            this.row = row;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            RowEntry that = (RowEntry) o;
+
+            return columns == that.columns && row == that.row;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(columns) + row;
+        }
+    }
+
+    private class EntryList extends AbstractList<DataEntry> implements RandomAccess {
+        @Override
+        public DataEntry get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+
+            return entry(index);
+        }
+
+        // Only the entries of the rows of these columns are equal to the elements
+        @Override
+        public int indexOf(Object o) {
+            if (!(o instanceof RowEntry)) {
+                return -1;
+            }
+
+            RowEntry entry = (RowEntry) o;
+            return entry.columns == DataColumns.this && entry.row < size ? entry.row : -1;
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            return indexOf(o);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -7,8 +7,9 @@ import java.util.stream.IntStream;
 /**
  * Represents a single data entry.
  */
-public class DataEntry implements IGUITableEntry {
+public class DataEntry implements IGUITableEntry, IDataRow {
     private final LocalDate date;
+    private final int epochDay;
     private final State state;
     private final County county;
     private final int confirmed;
@@ -19,50 +20,99 @@ public class DataEntry implements IGUITableEntry {
 
     public DataEntry(LocalDate date, State state, County county, int confirmed, int fatal)
             throws Exception {
+        this(requireValid(date, state, county, confirmed, fatal), state, county, confirmed, fatal,
+                getPopulation(state, county));
+    }
+
+    /**
+     * Construct a data entry without validation. {@code population} is the population of the entry location.
+     */
+    DataEntry(LocalDate date, State state, County county, int confirmed, int fatal, int population) {
+        if (population == 0) {
+            this.confirmedPer100K = -1;
+            this.fatalPer100K = -1;
+        } else {
+            this.confirmedPer100K = confirmed / (double) population * 100000;
+            this.fatalPer100K = fatal / (double) population * 100000;
+        }
+
+        // initialization of private fields
+        this.date = date;
+        this.epochDay = (int) date.toEpochDay();
+        this.state = state;
+        this.county = county;
+        this.confirmed = confirmed;
+        this.fatal = fatal;
+        this.deathRatePercent = fatal == 0 ? 0 : fatal / (double) confirmed * 100;
+    }
+
+    /**
+     * Create a data entry which was validated by {@code validate()} beforehand.
+     * <p>
+     * The caller must make sure that {@code validate()} returned {@code DataEntryStatus.VALID}.
+     *
+     * @return data entry created without validation
+     */
+    public static DataEntry createValidated(LocalDate date, State state, County county, int confirmed, int fatal) {
+        return new DataEntry(date, state, county, confirmed, fatal, getPopulation(state, county));
+    }
+
+    /**
+     * Get the population of the location of a data entry.
+     *
+     * @param state state of the entry, should not be {@code null}
+     * @param county county of the entry, {@code null} if not recorded
+     * @return population of {@code county}, or of {@code state} if {@code county} is {@code null}
+     */
+    private static int getPopulation(State state, County county) {
+        return county != null ? county.getPopulation() : state.getPopulation();
+    }
+
+    /**
+     * Validate the properties of a data entry without throwing.
+     *
+     * @param today current date. Entries after this date are invalid.
+     * @return {@code DataEntryStatus.VALID} if valid, otherwise the reason why invalid
+     */
+    public static DataEntryStatus validate(
+            LocalDate date, State state, County county, int confirmed, int fatal, LocalDate today) {
         // date validation check
-        if (date == null || date.compareTo(LocalDate.now()) > 0)
-            throw new InvalidDateException();
+        if (date == null || date.compareTo(today) > 0)
+            return DataEntryStatus.INVALID_DATE;
 
         // state validation check
         if (state == null)
-            throw new InvalidStateException();
+            return DataEntryStatus.INVALID_STATE;
 
         // confirmed validation check -- 1
         if (confirmed < 0)
-            throw new InvalidConfirmedCaseCountException();
-
-        // get population
-        int pop;
-
-        if (county != null) {
-            pop = county.getPopulation();
-        } else {
-            pop = state.getPopulation();
-        }
+            return DataEntryStatus.INVALID_CONFIRMED;
 
         // confirmed validation check -- 2
+        int pop = getPopulation(state, county);
         if (confirmed > pop || fatal > pop)
-            throw new InvalidConfirmedCaseCountException();
-
-        if (pop == 0) {
-            this.confirmedPer100K = -1;
-            this.fatalPer100K = -1;
-        } else {
-            this.confirmedPer100K = confirmed / (double) pop * 100000;
-            this.fatalPer100K = fatal / (double) pop * 100000;
-        }
+            return DataEntryStatus.INVALID_CONFIRMED;
 
         // fatal validation check
         if (fatal > confirmed || fatal < 0)
-            throw new InvalidFatalCaseException();
+            return DataEntryStatus.INVALID_FATAL;
 
-        // initialization of private fields
-        this.date = date;
-        this.state = state;
-        this.county = county;
-        this.confirmed = confirmed;
-        this.fatal = fatal;
-        this.deathRatePercent = fatal == 0 ? 0 : fatal / (double) confirmed * 100;
+        return DataEntryStatus.VALID;
+    }
+
+    /**
+     * Validate the properties of a data entry and throw the corresponding exception if invalid.
+     *
+     * @return {@code date} if valid
+     */
+    private static LocalDate requireValid(LocalDate date, State state, County county, int confirmed, int fatal)
+            throws Exception {
+        DataEntryStatus status = validate(date, state, county, confirmed, fatal, LocalDate.now());
+        if (status != DataEntryStatus.VALID) {
+            throw status.toException();
+        }
+
+        return date;
     }
 
     // region Accessors
@@ -70,6 +120,15 @@ public class DataEntry implements IGUITableEntry {
         return date;
     }
 
+    /**
+     * Get the date of this entry as the epoch day, which is the same as {@code getDate().toEpochDay()}.
+     *
+     * @return epoch day of the date
+     */
+    public int getEpochDay() {
+        return epochDay;
+    }
+
     public State getState() {
         return state;
     }
@@ -72,8 +72,9 @@ public class DataEntryFileProcessor {
         int confirmed;
         int fatal;
 
-        County county = UnitedStates.current.getCounty(lineEntry[IDX_COUNTY], lineEntry[IDX_STATE]);
-        State state = UnitedStates.current.getState(lineEntry[IDX_STATE]);
+        UnitedStates unitedStates = UnitedStates.current();
+        County county = unitedStates.getCounty(lineEntry[IDX_COUNTY], lineEntry[IDX_STATE]);
+        State state = unitedStates.getState(lineEntry[IDX_STATE]);
 
         try {
             // To process different input formats of localDate params,
@@ -97,4 +98,86 @@ public class DataEntryFileProcessor {
 
         return new DataEntry(date, state, county, confirmed, fatal);
     }
+
+    /**
+     * Parse the tokenized data entry to {@code DataEntry} without throwing.
+     * <p>
+     * Invalid entries are recorded to {@code report} and {@code null} is returned.
+     *
+     * @param row tokenizer holding the data entry
+     * @param resolver resolver of the location of the entry
+     * @param today current date. Entries after this date are invalid.
+     * @param report report to record the result
+     * @param lineNumber 1-based line number of the entry to be recorded if rejected
+     * @return parsed data entry. {@code null} if invalid.
+     */
+    public static DataEntry parse(DataRowTokenizer row, LocationResolver resolver,
+                                  LocalDate today, IngestRejectionReport report, long lineNumber) {
+        if (countFields(row) <= IDX_FATAL) {
+            report.reject(DataEntryStatus.MALFORMED_LINE, lineNumber);
+            return null;
+        }
+
+        return parse(
+                row.getDate(IDX_DATE),
+                resolver.resolve(row, IDX_COUNTY, IDX_STATE),
+                row.getInt(IDX_CONFIRMED, 0),
+                row.getInt(IDX_FATAL, 0),
+                today, report, lineNumber);
+    }
+
+    /**
+     * Count the fields of {@code row} as {@code String.split(",")} does, which drops the trailing empty fields.
+     *
+     * @param row tokenizer holding the data entry
+     * @return count of the fields up to the last non-empty field
+     */
+    private static int countFields(DataRowTokenizer row) {
+        int count = row.getFieldCount();
+        while (count > 0 && row.isEmpty(count - 1)) {
+            count--;
+        }
+
+        return count;
+    }
+
+    /**
+     * Create a {@code DataEntry} from the decoded fields without throwing.
+     * <p>
+     * Invalid entries are recorded to {@code report} and {@code null} is returned.
+     *
+     * @param date date of the entry. {@code null} if unparsable.
+     * @param location resolved location of the entry
+     * @param confirmed confirmed case count. {@code DataRowTokenizer.INVALID} if unparsable.
+     * @param fatal fatal case count. {@code DataRowTokenizer.INVALID} if unparsable.
+     * @param today current date. Entries after this date are invalid.
+     * @param report report to record the result
+     * @param lineNumber 1-based line number of the entry to be recorded if rejected
+     * @return created data entry. {@code null} if invalid.
+     */
+    public static DataEntry parse(LocalDate date, LocationResolver.Location location, int confirmed, int fatal,
+                                  LocalDate today, IngestRejectionReport report, long lineNumber) {
+        County county = location.getCounty();
+        State state = location.getState();
+
+        DataEntryStatus status;
+        if (date == null) {
+            status = DataEntryStatus.INVALID_DATE;
+        } else if (confirmed == DataRowTokenizer.INVALID) {
+            status = DataEntryStatus.INVALID_CONFIRMED;
+        } else if (fatal == DataRowTokenizer.INVALID) {
+            status = DataEntryStatus.INVALID_FATAL;
+        } else {
+            status = DataEntry.validate(date, state, county, confirmed, fatal, today);
+        }
+
+        if (status != DataEntryStatus.VALID) {
+            report.reject(status, lineNumber);
+            return null;
+        }
+
+        report.accept();
+
+        return DataEntry.createValidated(date, state, county, confirmed, fatal);
+    }
 }
@@ -0,0 +1,65 @@
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Predicates comparing a primitive field of {@code IDataRow} with a constant.
+ * <p>
+ * Each comparator of each type is a separate lambda class, chosen when the filter is compiled.
+ * The predicate of a filter only runs a single primitive comparison per row,
+ * without boxing, widening or switching on the comparator, so the JIT can inline it into the caller.
+ */
+public class DataEntryPredicates {
+    /**
+     * Create a predicate comparing the {@code int} field of the rows with {@code val}.
+     *
+     * @param field accessor of the field
+     * @param comparator comparator
+     * @param val value of {@code FilterConditionEntity}
+     * @return predicate of the comparison
+     */
+    public static Predicate<IDataRow> ofInt(ToIntFunction<IDataRow> field, FilterComparator comparator, int val) {
+        switch (comparator) {
+            case GT:
+                return entry -> field.applyAsInt(entry) > val;
+            case GTE:
+                return entry -> field.applyAsInt(entry) >= val;
+            case LT:
+                return entry -> field.applyAsInt(entry) < val;
+            case LTE:
+                return entry -> field.applyAsInt(entry) <= val;
+            case EQ:
+                return entry -> field.applyAsInt(entry) == val;
+            default:
+                return entry -> false;
+        }
+    }
+
+    /**
+     * Create a predicate comparing the {@code double} field of the rows with {@code val}.
+     * <p>
+     * A row of which {@code field} is {@code NaN} never matches.
+     *
+     * @param field accessor of the field
+     * @param comparator comparator
+     * @param val value of {@code FilterConditionEntity}
+     * @return predicate of the comparison
+     */
+    public static Predicate<IDataRow> ofDouble(
+            ToDoubleFunction<IDataRow> field, FilterComparator comparator, double val) {
+        switch (comparator) {
+            case GT:
+                return entry -> field.applyAsDouble(entry) > val;
+            case GTE:
+                return entry -> field.applyAsDouble(entry) >= val;
+            case LT:
+                return entry -> field.applyAsDouble(entry) < val;
+            case LTE:
+                return entry -> field.applyAsDouble(entry) <= val;
+            case EQ:
+                return entry -> field.applyAsDouble(entry) == val;
+            default:
+                return entry -> false;
+        }
+    }
+}
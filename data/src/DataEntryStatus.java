@@ -0,0 +1,62 @@
+/**
+ * Validation status of a data entry.
+ * <p>
+ * Returned by {@code DataEntry.validate()} so that invalid entries can be rejected without throwing.
+ */
+public enum DataEntryStatus {
+    /**
+     * The data entry is valid.
+     */
+    VALID("Valid"),
+    /**
+     * The line does not contain enough fields.
+     */
+    MALFORMED_LINE("Malformed line"),
+    /**
+     * Date is missing, unparsable or in the future.
+     */
+    INVALID_DATE("Invalid date"),
+    /**
+     * State is missing or not found.
+     */
+    INVALID_STATE("Invalid state"),
+    /**
+     * Confirmed case count is unparsable, negative or greater than the population.
+     */
+    INVALID_CONFIRMED("Invalid confirmed case count"),
+    /**
+     * Fatal case count is unparsable, negative or greater than the confirmed case count.
+     */
+    INVALID_FATAL("Invalid fatal case count");
+
+    private final String description;
+
+    DataEntryStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Create the exception which was thrown for this status before the status was introduced.
+     *
+     * @return exception corresponding to this status. {@code null} if this status is {@code VALID}.
+     */
+    public Exception toException() {
+        switch (this) {
+            case INVALID_DATE:
+                return new InvalidDateException();
+            case INVALID_STATE:
+            case MALFORMED_LINE:
+                return new InvalidStateException();
+            case INVALID_CONFIRMED:
+                return new InvalidConfirmedCaseCountException();
+            case INVALID_FATAL:
+                return new InvalidFatalCaseException();
+            default:
+                return null;
+        }
+    }
+}
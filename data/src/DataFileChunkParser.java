@@ -0,0 +1,383 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Parses a data file in parallel.
+ * <p>
+ * The file is memory-mapped and cut into byte ranges aligned to the line breaks.
+ * Each range is parsed on the common {@code ForkJoinPool} and the results are merged in file order.
+ * <p>
+ * Compressed files are parsed sequentially while being decompressed on the other threads.
+ * <p>
+ * All ranges of a file are resolved against the same snapshot of {@code UnitedStates},
+ * even if the population data is reloaded during the parsing.
+ */
+public class DataFileChunkParser {
+    /**
+     * Minimum size of a single range in bytes. Files smaller than this are parsed as a single range.
+     */
+    private static final long MIN_RANGE_SIZE = 1 << 20;
+
+    /**
+     * Count of ranges to be generated per available core.
+     * More ranges than cores lets the pool balance the uneven ranges.
+     */
+    private static final int RANGES_PER_CORE = 4;
+
+    /**
+     * Size of the buffer used to look for the line breaks when splitting the file.
+     */
+    private static final int PROBE_BUFFER_SIZE = 256;
+
+    /**
+     * Initial size of the buffer used to parse a compressed file. Grows if a single line does not fit.
+     */
+    private static final int STREAM_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Parse the data file at {@code path} in parallel.
+     *
+     * @param path path of the data file
+     * @param report report to record the rejected lines
+     * @return parsed data entries in file order. Invalid entries are skipped.
+     * @throws IOException thrown if file does not exist or occupied
+     */
+    public static List<DataEntry> parse(String path, IngestRejectionReport report) throws IOException {
+        return parse(path, report, Collectors.toList());
+    }
+
+    /**
+     * Parse the given range of the data file of {@code channel} in parallel.
+     *
+     * @param channel channel of the data file
+     * @param start start position (inclusive). Must be at a line start.
+     * @param end end position (exclusive)
+     * @param report report to record the rejected lines
+     * @return parsed data entries in file order. Invalid entries are skipped.
+     * @throws IOException thrown if failed to read the file
+     */
+    public static List<DataEntry> parse(FileChannel channel, long start, long end, IngestRejectionReport report)
+            throws IOException {
+        return parse(channel, start, end, report, Collectors.toList());
+    }
+
+    /**
+     * Parse the data file at {@code path} in parallel and collect the entries with {@code collector}.
+     * <p>
+     * Each range is collected into its own container as the lines are parsed,
+     * and the containers are combined in file order.
+     * No entry is retained unless {@code collector} retains it.
+     *
+     * @param path path of the data file
+     * @param report report to record the rejected lines
+     * @param collector collector to collect the valid entries
+     * @param <A> type of the intermediate container of {@code collector}
+     * @param <R> type of the result of {@code collector}
+     * @return result of {@code collector}
+     * @throws IOException thrown if file does not exist or occupied
+     */
+    public static <A, R> R parse(String path, IngestRejectionReport report, Collector<DataEntry, A, R> collector)
+            throws IOException {
+        if (CompressedFiles.isCompressed(path)) {
+            // Compressed file cannot be split, but the decompression still runs ahead of the parsing
+            try (InputStream in = CompressedFiles.open(path)) {
+                RangeResult<A> result = parseStream(in, UnitedStates.current(), LocalDate.now(), collector);
+                report.merge(result.report);
+
+                return collector.finisher().apply(result.container);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            return parse(channel, 0, channel.size(), report, collector);
+        }
+    }
+
+    /**
+     * Parse the given range of the data file of {@code channel} in parallel
+     * and collect the entries with {@code collector}.
+     */
+    private static <A, R> R parse(FileChannel channel, long start, long end, IngestRejectionReport report,
+                                  Collector<DataEntry, A, R> collector) throws IOException {
+        try {
+            long[] bounds = splitRanges(
+                    channel, start, end, ForkJoinPool.commonPool().getParallelism() * RANGES_PER_CORE);
+
+            RangeResult<A> result = ForkJoinPool.commonPool().invoke(new RangeTask<>(
+                    channel, bounds, 0, bounds.length - 1, UnitedStates.current(), LocalDate.now(), collector));
+            report.merge(result.report);
+
+            return collector.finisher().apply(result.container);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Cut the given range of the file of {@code channel} into at most {@code parts} ranges aligned to the line breaks.
+     * <p>
+     * Range {@code i} starts at {@code bounds[i]} (inclusive) and ends at {@code bounds[i + 1]} (exclusive).
+     *
+     * @param channel channel of the file to be splitted
+     * @param start start position (inclusive). Must be at a line start.
+     * @param end end position (exclusive)
+     * @param parts maximum count of the ranges
+     * @return boundaries of the ranges, including {@code start} and {@code end}
+     * @throws IOException thrown if failed to read the file
+     */
+    static long[] splitRanges(FileChannel channel, long start, long end, int parts) throws IOException {
+        long size = end - start;
+        int count = (int) Math.max(1, Math.min(parts, size / MIN_RANGE_SIZE));
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(start);
+
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_BUFFER_SIZE);
+        for (int i = 1; i < count; i++) {
+            long pos = nextLineStart(
+                    channel, Math.max(start + size / count * i, bounds.get(bounds.size() - 1)), probe);
+
+            if (pos >= end) {
+                break;
+            }
+            if (pos > bounds.get(bounds.size() - 1)) {
+                bounds.add(pos);
+            }
+        }
+
+        bounds.add(end);
+
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Get the position of the first line start at or after {@code from}.
+     *
+     * @param channel channel of the file
+     * @param from position to start searching
+     * @param probe buffer to be used for reading
+     * @return position right after the next line break, or the file size if no more line break
+     * @throws IOException thrown if failed to read the file
+     */
+    private static long nextLineStart(FileChannel channel, long from, ByteBuffer probe) throws IOException {
+        if (from == 0) {
+            return 0;
+        }
+
+        // Start from the previous byte, so a range starting right after a line break is kept as-is
+        long pos = from - 1;
+
+        while (true) {
+            probe.clear();
+            int read = channel.read(probe, pos);
+            if (read <= 0) {
+                return channel.size();
+            }
+
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+
+            pos += read;
+        }
+    }
+
+    /**
+     * Parse all lines in the given range of the file.
+     *
+     * @param channel channel of the file
+     * @param start start position (inclusive)
+     * @param end end position (exclusive)
+     * @param unitedStates population data to resolve the locations against
+     * @param today current date. Entries after this date are invalid.
+     * @param collector collector to collect the valid entries
+     * @return collected data entries and the rejected lines in the range
+     * @throws IOException thrown if failed to map the file
+     */
+    private static <A> RangeResult<A> parseRange(FileChannel channel, long start, long end, UnitedStates unitedStates,
+                                                 LocalDate today, Collector<DataEntry, A, ?> collector)
+            throws IOException {
+        RangeResult<A> result = new RangeResult<>(collector.supplier().get());
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+
+        parseLines(buffer, buffer.limit(), true, new DataRowTokenizer(), new LocationResolver(unitedStates), today,
+                collector.accumulator(), result);
+
+        return result;
+    }
+
+    /**
+     * Parse all lines read from {@code in}.
+     *
+     * @param in stream to read the lines
+     * @param unitedStates population data to resolve the locations against
+     * @param today current date. Entries after this date are invalid.
+     * @param collector collector to collect the valid entries
+     * @return collected data entries and the rejected lines
+     * @throws IOException thrown if failed to read from {@code in}
+     */
+    private static <A> RangeResult<A> parseStream(InputStream in, UnitedStates unitedStates, LocalDate today,
+                                                  Collector<DataEntry, A, ?> collector) throws IOException {
+        RangeResult<A> result = new RangeResult<>(collector.supplier().get());
+        DataRowTokenizer tokenizer = new DataRowTokenizer();
+        LocationResolver resolver = new LocationResolver(unitedStates);
+        BiConsumer<A, DataEntry> accumulator = collector.accumulator();
+
+        byte[] bytes = new byte[STREAM_BUFFER_SIZE];
+        int filled = 0;
+
+        while (true) {
+            int read = in.read(bytes, filled, bytes.length - filled);
+            if (read < 0) {
+                parseLines(ByteBuffer.wrap(bytes), filled, true, tokenizer, resolver, today, accumulator, result);
+                return result;
+            }
+            filled += read;
+
+            int consumed = parseLines(
+                    ByteBuffer.wrap(bytes), filled, false, tokenizer, resolver, today, accumulator, result);
+
+            // Keep the incomplete line for the next read
+            filled -= consumed;
+            if (consumed > 0) {
+                System.arraycopy(bytes, consumed, bytes, 0, filled);
+            } else if (filled == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+        }
+    }
+
+    /**
+     * Parse the lines in {@code [0, limit)} of {@code buffer}.
+     *
+     * @param buffer buffer containing the lines
+     * @param limit end of the lines (exclusive)
+     * @param last if the buffer contains the last line, which may not have the trailing line break
+     * @param tokenizer tokenizer to be used
+     * @param resolver resolver of the locations to be used
+     * @param today current date. Entries after this date are invalid.
+     * @param accumulator accumulator of the collector to collect the valid entries
+     * @param result result to collect the entries and record the rejected lines
+     * @return start position of the incomplete line which is not parsed
+     */
+    private static <A> int parseLines(ByteBuffer buffer, int limit, boolean last, DataRowTokenizer tokenizer,
+                                      LocationResolver resolver, LocalDate today,
+                                      BiConsumer<A, DataEntry> accumulator, RangeResult<A> result) {
+        int lineStart = 0;
+
+        for (int pos = 0; pos <= limit; pos++) {
+            // Last line may not have the trailing line break
+            if (pos < limit && buffer.get(pos) != '\n') {
+                continue;
+            }
+            if (pos == limit && !last) {
+                break;
+            }
+
+            int lineEnd = pos > lineStart && buffer.get(pos - 1) == '\r' ? pos - 1 : pos;
+
+            if (lineEnd > lineStart) {
+                tokenizer.reset(buffer, lineStart, lineEnd);
+
+                DataEntry entry = DataEntryFileProcessor.parse(
+                        tokenizer, resolver, today, result.report, result.report.getLineCount() + 1);
+                if (entry != null) {
+                    accumulator.accept(result.container, entry);
+                }
+            } else if (pos < limit || pos > lineStart) {
+                result.report.skip();
+            }
+
+            lineStart = pos + 1;
+        }
+
+        return lineStart;
+    }
+
+    /**
+     * Collected data entries and the rejected lines of a range.
+     *
+     * @param <A> type of the container of the collected entries
+     */
+    private static class RangeResult<A> {
+        private A container;
+        private final IngestRejectionReport report = new IngestRejectionReport();
+
+        RangeResult(A container) {
+            this.container = container;
+        }
+
+        /**
+         * Append the result of the range right after this range.
+         */
+        private void append(RangeResult<A> other, BinaryOperator<A> combiner) {
+            container = combiner.apply(container, other.container);
+            report.merge(other.report);
+        }
+    }
+
+    /**
+     * Task parsing the ranges from {@code bounds[from]} to {@code bounds[to]}.
+     *
+     * @param <A> type of the container of the collected entries
+     */
+    private static class RangeTask<A> extends RecursiveTask<RangeResult<A>> {
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+        private final UnitedStates unitedStates;
+        private final LocalDate today;
+        private final Collector<DataEntry, A, ?> collector;
+
+        RangeTask(FileChannel channel, long[] bounds, int from, int to, UnitedStates unitedStates, LocalDate today,
+                  Collector<DataEntry, A, ?> collector) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.unitedStates = unitedStates;
+            this.today = today;
+            this.collector = collector;
+        }
+
+        @Override
+        protected RangeResult<A> compute() {
+            if (to - from <= 1) {
+                try {
+                    return parseRange(channel, bounds[from], bounds[to], unitedStates, today, collector);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            int mid = (from + to) >>> 1;
+            RangeTask<A> left = new RangeTask<>(channel, bounds, from, mid, unitedStates, today, collector);
+            RangeTask<A> right = new RangeTask<>(channel, bounds, mid, to, unitedStates, today, collector);
+
+            right.fork();
+            RangeResult<A> result = left.compute();
+            result.append(right.join(), collector.combiner());
+
+            return result;
+        }
+    }
+}
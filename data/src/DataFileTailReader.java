@@ -0,0 +1,153 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the lines appended to a data file after it has been loaded.
+ * <p>
+ * The reader remembers the byte offset already consumed and parses only the part after it.
+ * A trailing line without the line break is left unconsumed until it is completed.
+ */
+public class DataFileTailReader implements IAppendedDataReader {
+    /**
+     * Count of the bytes right before the consumed offset to be checked if the consumed part has been rewritten.
+     */
+    private static final int CHECK_SIZE = 4096;
+
+    private final String path;
+    private final IngestRejectionReport report;
+
+    private long offset;
+    private long checksum;
+
+    /**
+     * @param path path of the data file
+     * @param offset count of the bytes already consumed
+     * @param report report of the lines already consumed. Lines read later are merged into this report.
+     * @throws IOException thrown if failed to read the data file
+     */
+    public DataFileTailReader(String path, long offset, IngestRejectionReport report) throws IOException {
+        this.path = path;
+        this.report = report;
+        this.offset = offset;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            this.checksum = checksum(channel, offset);
+        }
+    }
+
+    /**
+     * Create a reader which has consumed the whole data file at {@code path}.
+     *
+     * @param path path of the data file
+     * @param report report filled when loading the data file
+     * @return reader starting from the current end of the data file
+     * @throws IOException thrown if failed to read the data file
+     */
+    public static DataFileTailReader atEnd(String path, IngestRejectionReport report) throws IOException {
+        return new DataFileTailReader(path, Files.size(Paths.get(path)), report);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only the complete lines appended after the consumed offset are parsed, in file order.
+     * Rejected lines are merged into the report of this reader.
+     */
+    @Override
+    public List<DataEntry> readAppended() throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            if (channel.size() < offset || checksum(channel, offset) != checksum) {
+                return null;
+            }
+
+            long start = offset;
+            long end = lastLineEnd(channel, offset, channel.size());
+
+            if (start > 0 && start < end && readByte(channel, start - 1) != '\n') {
+                // The last consumed line did not have the line break, so the tail has to start with one
+                if (readByte(channel, start) != '\n') {
+                    return null;
+                }
+                start++;
+            }
+
+            List<DataEntry> entries = start < end
+                    ? DataFileChunkParser.parse(channel, start, end, report)
+                    : new ArrayList<>();
+
+            offset = end;
+            checksum = checksum(channel, offset);
+
+            return entries;
+        }
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public IngestRejectionReport getReport() {
+        return report;
+    }
+
+    /**
+     * Get the position right after the last line break in the given range.
+     *
+     * @return position right after the last line break, or {@code start} if there is no line break
+     */
+    private static long lastLineEnd(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHECK_SIZE);
+        long pos = end;
+
+        while (pos > start) {
+            int length = (int) Math.min(CHECK_SIZE, pos - start);
+
+            buffer.clear().limit(length);
+            channel.read(buffer, pos - length);
+
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return pos - length + i + 1;
+                }
+            }
+
+            pos -= length;
+        }
+
+        return start;
+    }
+
+    private static byte readByte(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        channel.read(buffer, position);
+
+        return buffer.get(0);
+    }
+
+    /**
+     * Checksum of the bytes right before {@code end}.
+     */
+    private static long checksum(FileChannel channel, long end) throws IOException {
+        int length = (int) Math.min(CHECK_SIZE, end);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, end - length + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+
+        return crc.getValue();
+    }
+}
@@ -5,30 +5,66 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.util.Callback;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * A class holding multiple {@code DataEntry}.
+ * <p>
+ * The entries are stored in {@code DataColumns}, and {@code DataEntry} objects are created
+ * only when the entries are shown or exported.
  */
 public class DataHolder implements IGUITableDataCollection<DataEntry> {
-    private final List<DataEntry> entries;
+    /**
+     * Pool to filter large data in parallel. {@code null} if filtered sequentially.
+     */
+    private static volatile ForkJoinPool filterPool = ForkJoinPool.commonPool();
+
+    private final DataColumns columns;
     private final FilterCondition condition;
+    private final Predicate<DataEntry> predicate;
 
+    private final DailyCaseAggregator aggregator = new DailyCaseAggregator();
     private final DailyCaseStats dailyCaseStats;
 
+    /**
+     * Incremented every time entries are appended.
+     */
+    private long version;
+
+    /**
+     * Count of the bytes of the data file loaded by {@code loadFile}. {@code -1} if not loaded from a data file.
+     */
+    private long loadedFileSize = -1;
+
     public DataHolder(Stream<DataEntry> entries) {
         this(entries, new FilterCondition());
     }
 
     public DataHolder(Stream<DataEntry> entries, FilterCondition condition) {
-        this.entries = entries.filter(Objects::nonNull).collect(Collectors.toList());
+        this(DataColumns.of(entries), condition, entry -> true);
+    }
+
+    /**
+     * @param columns columns of the data entries
+     * @param condition condition used to filter the data
+     * @param predicate predicate of {@code condition}, used to filter the entries appended later
+     */
+    private DataHolder(DataColumns columns, FilterCondition condition, Predicate<DataEntry> predicate) {
+        this.columns = columns;
         this.condition = condition;
+        this.predicate = predicate;
 
         this.dailyCaseStats = prepareDailyStats();
     }
@@ -39,11 +75,7 @@ public class DataHolder implements IGUITableDataCollection<DataEntry> {
      * @return sorted list of dates
      */
     public List<LocalDate> sortedListOfDates() {
-        return this.entries.stream()
-                .map(DataEntry::getDate)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return this.aggregator.sortedListOfDates();
     }
 
     /**
@@ -52,28 +84,52 @@ public class DataHolder implements IGUITableDataCollection<DataEntry> {
      * @return daily stats of the data entries
      */
     private DailyCaseStats prepareDailyStats() {
-        int totalPop = getPopulation();
-        List<LocalDate> dates = sortedListOfDates();
-        Map<LocalDate, Integer> confirmedCount = new TreeMap<>();
-        Map<LocalDate, Integer> fatalCount = new TreeMap<>();
-
-        this.entries.forEach(entry -> {
-            LocalDate date = entry.getDate();
-            confirmedCount.put(date, confirmedCount.getOrDefault(date, 0) + entry.getConfirmed());
-            fatalCount.put(date, fatalCount.getOrDefault(date, 0) + entry.getFatal());
-        });
-
-        List<DailyCaseCounts> counts = dates.stream()
-                .map(date -> {
-                    int confirmed = confirmedCount.getOrDefault(date, 0);
-                    int confirmedDiff = confirmed - confirmedCount.getOrDefault(date.minusDays(1), 0);
-                    int fatal = fatalCount.getOrDefault(date, 0);
-                    int fatalDiff = fatal - fatalCount.getOrDefault(date.minusDays(1), 0);
-                    return new DailyCaseCounts(date, confirmed, confirmedDiff, fatal, fatalDiff, totalPop);
-                })
-                .collect(Collectors.toList());
-
-        return new DailyCaseStats(counts);
+        this.columns.aggregate(this.aggregator);
+
+        return this.aggregator.toDailyCaseStats();
+    }
+
+    /**
+     * Append {@code appended} to this {@code DataHolder}.
+     * <p>
+     * Only the entries matching the condition of this {@code DataHolder} are appended.
+     * Daily counts are updated only for the dates of the appended entries and the day after each of them,
+     * unless the total population is changed by a new location.
+     *
+     * @param appended entries to be appended
+     * @return count of the entries actually appended
+     */
+    public int appendEntries(List<DataEntry> appended) {
+        Set<LocalDate> affectedDates = new TreeSet<>();
+        boolean populationChanged = false;
+        int count = 0;
+
+        for (DataEntry entry : appended) {
+            if (entry == null || !predicate.test(entry)) {
+                continue;
+            }
+
+            this.columns.add(entry);
+            populationChanged |= aggregator.add(entry);
+            count++;
+
+            affectedDates.add(entry.getDate());
+            affectedDates.add(entry.getDate().plusDays(1));
+        }
+
+        if (count > 0) {
+            version++;
+        }
+
+        // Every daily count depends on the total population
+        Collection<LocalDate> dates = populationChanged ? aggregator.sortedListOfDates() : affectedDates;
+
+        this.dailyCaseStats.putAll(dates.stream()
+                .filter(aggregator::hasDate)
+                .map(aggregator::dailyCounts)
+                .collect(Collectors.toList()));
+
+        return count;
     }
 
     /**
@@ -102,20 +158,97 @@ public class DataHolder implements IGUITableDataCollection<DataEntry> {
     /**
      * Filter the data using the given {@code condition}
      * and return a {@code DataHolder} which contains the filtered data.
+     * <p>
+     * The columns are scanned into a selection vector without creating any {@code DataEntry}.
+     * Large data is split into chunks filtered in parallel, see {@link #setFilterThreads(int)}.
+     * The terms of {@code condition} are evaluated in the order estimated from the statistics of the columns.
      *
      * @param condition condition to be used to filter the data
      * @return a {@code DataHolder} containing the filtered data
      */
     public DataHolder filterData(FilterCondition condition) throws FilterSyntaxError {
-        return new DataHolder(
-                this.entries
-                        .stream()
-                        .filter(ConditionPredicateConverter.convert(condition)),
-                condition);
+        FilterPlan plan = FilterPlan.compile(condition).reorder(this.columns.getStatistics());
+
+        // Read once, so the whole filter runs on the same pool even if the pool is replaced meanwhile
+        ForkJoinPool pool = filterPool;
+
+        return new DataHolder(this.columns.select(plan.select(this.columns, pool)), condition, plan);
+    }
+
+    /**
+     * Set the count of the threads filtering large data in parallel. Small data is always filtered sequentially.
+     *
+     * @param threads count of the threads.
+     *                {@code 0} or less to use the common {@code ForkJoinPool}, {@code 1} to filter sequentially.
+     */
+    public static synchronized void setFilterThreads(int threads) {
+        // The previous pool is not shut down, as filters running at the same time may still submit to it.
+        // Its workers exit once idle, and the pool is reclaimed after those filters end.
+        if (threads <= 0) {
+            filterPool = ForkJoinPool.commonPool();
+        } else if (threads == 1) {
+            filterPool = null;
+        } else {
+            filterPool = new ForkJoinPool(threads);
+        }
+    }
+
+    /**
+     * Check if filtering this {@code DataHolder} using {@code condition} gets the same entries
+     * as filtering the data this {@code DataHolder} was filtered from.
+     * <p>
+     * This holds if {@code condition} is provably stricter than the condition of this {@code DataHolder},
+     * and the population data has not been reloaded since this {@code DataHolder} was filtered,
+     * as the states and the counties of the condition may be resolved differently after reloaded.
+     *
+     * @param condition condition to be used to filter the data
+     * @return if this {@code DataHolder} can be filtered instead of the data it was filtered from
+     * @see FilterCondition#isStricterThan(FilterCondition)
+     */
+    public boolean canRefine(FilterCondition condition) {
+        if (this.predicate instanceof FilterPlan
+                && ((FilterPlan) this.predicate).getUnitedStates() != UnitedStates.current()) {
+            return false;
+        }
+
+        return condition.isStricterThan(this.condition);
+    }
+
+    public FilterCondition getCondition() {
+        return condition;
+    }
+
+    /**
+     * Get the count of the bytes of the data file loaded into this {@code DataHolder},
+     * which is where the lines appended to the data file start.
+     *
+     * @return count of the loaded bytes. {@code -1} if not loaded by {@code loadFile}.
+     * @see DataFileTailReader#DataFileTailReader(String, long, IngestRejectionReport)
+     */
+    public long getLoadedFileSize() {
+        return loadedFileSize;
     }
 
     public int getDataCount() {
-        return this.entries.size();
+        return this.columns.size();
+    }
+
+    /**
+     * Get the statistics of the entries, used to order the terms of the filters.
+     *
+     * @return statistics of the entries
+     */
+    public DataStatistics getStatistics() {
+        return this.columns.getStatistics();
+    }
+
+    /**
+     * Get the version of the entries, which is changed every time any entry is appended.
+     *
+     * @return version of the entries
+     */
+    public long getVersion() {
+        return version;
     }
 
     public DailyCaseStats getDailyCaseStats() {
@@ -128,13 +261,7 @@ public class DataHolder implements IGUITableDataCollection<DataEntry> {
      * @return total population of all entries' location
      */
     public int getPopulation() {
-        return this.entries
-                .stream()
-                .map(DataEntry::getCounty)
-                .distinct()
-                .filter(Objects::nonNull)
-                .mapToInt(County::getPopulation)
-                .sum();
+        return this.aggregator.getPopulation();
     }
 
     /**
@@ -161,17 +288,19 @@ public class DataHolder implements IGUITableDataCollection<DataEntry> {
         sb.append("\n");
         sb.append("# Data Entries\n");
         sb.append(DataEntryFileProcessor.tableHeader()).append("\n");
-        sb.append(this.entries.stream().map(DataEntry::toTableEntry).collect(Collectors.joining("\n")));
+        sb.append(this.columns.entries().stream().map(DataEntry::toTableEntry).collect(Collectors.joining("\n")));
 
         return sb;
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Each entry is created from the columns when it is accessed.
      */
     @Override
     public List<DataEntry> getTableDataEntry() {
-        return this.entries;
+        return this.columns.entries();
     }
 
     /**
@@ -247,15 +376,162 @@ public class DataHolder implements IGUITableDataCollection<DataEntry> {
      * @throws IOException thrown if file does not exist or occupied
      */
     public static DataHolder parseFile(String path) throws IOException {
-        return new DataHolder(Files.lines(Paths.get(path))
-                .map(line -> line.split(","))
-                .map(lineEntry -> {
-                    try {
-                        return DataEntryFileProcessor.parse(lineEntry);
-                    } catch (Exception e) {
-                        return null;
+        return parseFile(path, new IngestRejectionReport());
+    }
+
+    /**
+     * Parse the data file into a single {@code DataHolder}.
+     * <p>
+     * Invalid lines are skipped and recorded to {@code report}. The data file can be compressed.
+     *
+     * @param path path of the data file
+     * @param report report to record the rejected lines
+     * @return parsed {@code DataHolder}
+     * @throws IOException thrown if file does not exist or occupied
+     */
+    public static DataHolder parseFile(String path, IngestRejectionReport report) throws IOException {
+        DataRowTokenizer tokenizer = new DataRowTokenizer();
+        LocationResolver resolver = new LocationResolver();
+        LocalDate today = LocalDate.now();
+
+        try (Stream<String> lines = CompressedFiles.lines(path)) {
+            return new DataHolder(lines
+                    .map(line -> {
+                        if (line.isEmpty()) {
+                            report.skip();
+                            return null;
+                        }
+
+                        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                        tokenizer.reset(ByteBuffer.wrap(bytes), 0, bytes.length);
+
+                        return DataEntryFileProcessor.parse(
+                                tokenizer, resolver, today, report, report.getLineCount() + 1);
+                    })
+                    .filter(Objects::nonNull));
+        }
+    }
+
+    /**
+     * Parse the data file into a single {@code DataHolder} in parallel.
+     * <p>
+     * The result is identical to {@code parseFile()}, including the order of the entries.
+     *
+     * @param path path of the data file
+     * @return parsed {@code DataHolder}
+     * @throws IOException thrown if file does not exist or occupied
+     */
+    public static DataHolder parseFileParallel(String path) throws IOException {
+        return parseFileParallel(path, new IngestRejectionReport());
+    }
+
+    /**
+     * Parse the data file into a single {@code DataHolder} in parallel.
+     * <p>
+     * The result is identical to {@code parseFile()}, including the order of the entries and {@code report}.
+     *
+     * @param path path of the data file
+     * @param report report to record the rejected lines
+     * @return parsed {@code DataHolder}
+     * @throws IOException thrown if file does not exist or occupied
+     */
+    public static DataHolder parseFileParallel(String path, IngestRejectionReport report) throws IOException {
+        return new DataHolder(DataFileChunkParser.parse(path, report).stream());
+    }
+
+    /**
+     * Aggregate the data file into the daily stats in a single pass without holding the entries.
+     * <p>
+     * The file is parsed in parallel. Memory usage does not grow with the size of the file.
+     *
+     * @param path path of the data file
+     * @param report report to record the rejected lines
+     * @return aggregated daily stats, population and dates of the data file
+     * @throws IOException thrown if file does not exist or occupied
+     */
+    public static DailyCaseAggregator summarizeFile(String path, IngestRejectionReport report) throws IOException {
+        return DataFileChunkParser.parse(path, report, DailyCaseAggregator.collector());
+    }
+
+    /**
+     * Load the data file into a single {@code DataHolder} using its snapshot.
+     * <p>
+     * If the snapshot is missing or outdated, the data file is parsed in parallel and the snapshot is rewritten.
+     * Otherwise, the text parsing is skipped completely.
+     * <p>
+     * Only the bytes of the data file present when the loading starts are loaded.
+     *
+     * @param path path of the data file
+     * @param report report to record the rejected lines
+     * @return loaded {@code DataHolder}
+     * @throws IOException thrown if file does not exist or occupied
+     */
+    public static DataHolder loadFile(String path, IngestRejectionReport report) throws IOException {
+        return loadFile(path, report, new IngestProfiler());
+    }
+
+    /**
+     * Load the data file into a single {@code DataHolder} using its snapshot, recording each stage to {@code profiler}.
+     *
+     * @param path path of the data file
+     * @param report report to record the rejected lines
+     * @param profiler profiler to record the stages of the loading
+     * @return loaded {@code DataHolder}
+     * @throws IOException thrown if file does not exist or occupied
+     * @see #loadFile(String, IngestRejectionReport)
+     */
+    public static DataHolder loadFile(String path, IngestRejectionReport report, IngestProfiler profiler)
+            throws IOException {
+        // Taken before parsing, so the lines appended during the parsing are left to the tail reader
+        DataSnapshotCache.SnapshotKey key = DataSnapshotCache.key(path);
+        LocalDate today = LocalDate.now();
+        long lineCount = report.getLineCount();
+        long rejectedCount = report.getRejectedCount();
+
+        List<DataEntry> entries;
+        try (IngestProfiler.Stage stage = profiler.start("Reading data snapshot")) {
+            entries = DataSnapshotCache.load(path, key, today, report);
+
+            if (entries != null) {
+                stage.bytes(Files.size(DataSnapshotCache.snapshotPath(path)))
+                        .rows(report.getLineCount() - lineCount)
+                        .rejected(report.getRejectedCount() - rejectedCount);
+            }
+        }
+
+        if (entries == null) {
+            try (IngestProfiler.Stage stage = profiler.start("Parsing data file")) {
+                if (CompressedFiles.isCompressed(path)) {
+                    entries = DataFileChunkParser.parse(path, report);
+                } else {
+                    try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+                        entries = DataFileChunkParser.parse(channel, 0, key.getSize(), report);
                     }
-                })
-                .filter(Objects::nonNull));
+                }
+                stage.bytes(key.getSize())
+                        .rows(report.getLineCount() - lineCount)
+                        .rejected(report.getRejectedCount() - rejectedCount);
+            }
+
+            try (IngestProfiler.Stage stage = profiler.start("Saving data snapshot")) {
+                DataSnapshotCache.save(path, key, today, entries, report);
+                stage.rows(entries.size());
+            } catch (IOException e) {
+                System.out.println("Failed to save the data snapshot. The data file will be parsed again next time.");
+            }
+        }
+
+        DataHolder holder;
+        try (IngestProfiler.Stage stage = profiler.start("Preparing daily stats")) {
+            holder = new DataHolder(entries.stream());
+            holder.loadedFileSize = key.getSize();
+            stage.rows(entries.size());
+        }
+
+        try (IngestProfiler.Stage stage = profiler.start("Collecting column statistics")) {
+            stage.rows(holder.getStatistics().getRowCount());
+        }
+
+        return holder;
     }
 }
@@ -0,0 +1,414 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Tokenizes a single line of the data file directly on the underlying byte buffer.
+ * <p>
+ * Only the boundaries of the fields are recorded.
+ * Dates and numbers are decoded from the bytes without creating any intermediate {@code String}.
+ * <p>
+ * Fields can be quoted ({@code "Dona Ana, NM"}). A quote inside a quoted field is escaped as {@code ""}.
+ * <p>
+ * An instance is meant to be reused for every line parsed by a single thread.
+ */
+public class DataRowTokenizer {
+    /**
+     * Value returned by the decoding methods if the field cannot be decoded.
+     */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    private static final int INITIAL_FIELD_CAPACITY = 16;
+
+    private static final byte SEPARATOR = ',';
+    private static final byte QUOTE = '"';
+
+    private ByteBuffer buffer;
+
+    private int[] fieldStart = new int[INITIAL_FIELD_CAPACITY];
+    private int[] fieldEnd = new int[INITIAL_FIELD_CAPACITY];
+    private boolean[] fieldEscaped = new boolean[INITIAL_FIELD_CAPACITY];
+    private int fieldCount;
+
+    // Most of the consecutive lines share the same date
+    private int lastEpochDay = INVALID;
+    private LocalDate lastDate;
+
+    /**
+     * Tokenize the line located at {@code [start, end)} of {@code buffer}.
+     * <p>
+     * Position and limit of {@code buffer} are not modified.
+     *
+     * @param buffer buffer containing the line
+     * @param start start index of the line (inclusive)
+     * @param end end index of the line (exclusive), excluding the line break
+     */
+    public void reset(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.fieldCount = 0;
+
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+
+        int pos = start;
+        while (true) {
+            if (pos < end && buffer.get(pos) == QUOTE) {
+                pos = readQuotedField(pos + 1, end);
+            } else {
+                int fieldBegin = pos;
+                while (pos < end && buffer.get(pos) != SEPARATOR) {
+                    pos++;
+                }
+                pushField(fieldBegin, pos, false);
+            }
+
+            if (pos >= end) {
+                return;
+            }
+
+            pos++; // Skip the separator
+        }
+    }
+
+    /**
+     * Read a quoted field starting right after the opening quote.
+     *
+     * @param pos position right after the opening quote
+     * @param end end index of the line (exclusive)
+     * @return position of the separator after the field or {@code end}
+     */
+    private int readQuotedField(int pos, int end) {
+        int fieldBegin = pos;
+        boolean escaped = false;
+
+        while (pos < end) {
+            if (buffer.get(pos) == QUOTE) {
+                if (pos + 1 < end && buffer.get(pos + 1) == QUOTE) {
+                    escaped = true;
+                    pos += 2;
+                    continue;
+                }
+                break;
+            }
+            pos++;
+        }
+
+        pushField(fieldBegin, pos, escaped);
+
+        // Skip anything between the closing quote and the separator
+        while (pos < end && buffer.get(pos) != SEPARATOR) {
+            pos++;
+        }
+
+        return pos;
+    }
+
+    private void pushField(int start, int end, boolean escaped) {
+        if (fieldCount == fieldStart.length) {
+            int capacity = fieldStart.length * 2;
+
+            int[] starts = new int[capacity];
+            int[] ends = new int[capacity];
+            boolean[] escapes = new boolean[capacity];
+            System.arraycopy(fieldStart, 0, starts, 0, fieldCount);
+            System.arraycopy(fieldEnd, 0, ends, 0, fieldCount);
+            System.arraycopy(fieldEscaped, 0, escapes, 0, fieldCount);
+
+            fieldStart = starts;
+            fieldEnd = ends;
+            fieldEscaped = escapes;
+        }
+
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = end;
+        fieldEscaped[fieldCount] = escaped;
+        fieldCount++;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Check if the field at {@code idx} is empty or not present.
+     *
+     * @param idx index of the field
+     * @return if the field is empty or not present
+     */
+    public boolean isEmpty(int idx) {
+        return idx >= fieldCount || fieldStart[idx] == fieldEnd[idx];
+    }
+
+    /**
+     * Get the length of the field in bytes. Escaped quotes are counted as 2 bytes.
+     *
+     * @param idx index of the field
+     * @return length of the field in bytes, 0 if not present
+     */
+    public int getFieldLength(int idx) {
+        return idx >= fieldCount ? 0 : fieldEnd[idx] - fieldStart[idx];
+    }
+
+    /**
+     * Get the byte at {@code offset} of the field at {@code idx}.
+     *
+     * @param idx index of the field
+     * @param offset offset in the field
+     * @return byte at the given position
+     */
+    public byte getFieldByte(int idx, int offset) {
+        return buffer.get(fieldStart[idx] + offset);
+    }
+
+    /**
+     * Check if the field at {@code idx} contains an escaped quote ({@code ""}).
+     *
+     * @param idx index of the field
+     * @return if the field contains an escaped quote, {@code false} if not present
+     */
+    public boolean isEscaped(int idx) {
+        return idx < fieldCount && fieldEscaped[idx];
+    }
+
+    /**
+     * Calculate the hash of the raw bytes of the field at {@code idx}, continuing from {@code hash}.
+     *
+     * @param idx index of the field
+     * @param hash hash to continue from
+     * @return hash including the bytes of the field
+     */
+    public int hashField(int idx, int hash) {
+        for (int i = 0; i < getFieldLength(idx); i++) {
+            hash = 31 * hash + buffer.get(fieldStart[idx] + i);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Check if the raw bytes of the field at {@code idx} are equal to {@code [from, to)} of {@code bytes}.
+     *
+     * @param idx index of the field
+     * @param bytes bytes to be compared
+     * @param from start index in {@code bytes} (inclusive)
+     * @param to end index in {@code bytes} (exclusive)
+     * @return if the bytes are equal
+     */
+    public boolean fieldEquals(int idx, byte[] bytes, int from, int to) {
+        int len = getFieldLength(idx);
+        if (len != to - from) {
+            return false;
+        }
+
+        for (int i = 0; i < len; i++) {
+            if (buffer.get(fieldStart[idx] + i) != bytes[from + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Copy the raw bytes of the field at {@code idx} into {@code dest}.
+     *
+     * @param idx index of the field
+     * @param dest destination of the bytes
+     * @param offset start index in {@code dest}
+     * @return count of the copied bytes
+     */
+    public int copyField(int idx, byte[] dest, int offset) {
+        int len = getFieldLength(idx);
+        for (int i = 0; i < len; i++) {
+            dest[offset + i] = buffer.get(fieldStart[idx] + i);
+        }
+
+        return len;
+    }
+
+    /**
+     * Decode the field at {@code idx} to a {@code String}.
+     * <p>
+     * This is the only decoding method which allocates.
+     *
+     * @param idx index of the field
+     * @return decoded field, empty if not present
+     */
+    public String getString(int idx) {
+        if (isEmpty(idx)) {
+            return "";
+        }
+
+        int len = fieldEnd[idx] - fieldStart[idx];
+        byte[] bytes = new byte[len];
+        for (int i = 0; i < len; i++) {
+            bytes[i] = buffer.get(fieldStart[idx] + i);
+        }
+
+        String str = new String(bytes, StandardCharsets.UTF_8);
+        return fieldEscaped[idx] ? str.replace("\"\"", "\"") : str;
+    }
+
+    /**
+     * Decode the field at {@code idx} to an {@code int}.
+     * <p>
+     * An empty field is decoded as {@code defaultVal}.
+     *
+     * @param idx index of the field
+     * @param defaultVal value to be returned if the field is empty
+     * @return decoded {@code int}, {@code INVALID} if the field is not an integer or overflows
+     */
+    public int getInt(int idx, int defaultVal) {
+        if (isEmpty(idx)) {
+            return defaultVal;
+        }
+
+        int pos = fieldStart[idx];
+        int end = fieldEnd[idx];
+
+        boolean negative = false;
+        byte first = buffer.get(pos);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            pos++;
+
+            if (pos == end) {
+                return INVALID;
+            }
+        }
+
+        long val = 0;
+        for (; pos < end; pos++) {
+            int digit = buffer.get(pos) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+
+            val = val * 10 + digit;
+            if (val > (long) Integer.MAX_VALUE + 1) {
+                return INVALID;
+            }
+        }
+
+        val = negative ? -val : val;
+        if (val > Integer.MAX_VALUE || val <= INVALID) {
+            return INVALID;
+        }
+
+        return (int) val;
+    }
+
+    /**
+     * Decode the field at {@code idx} in ISO format ({@code yyyy-MM-dd}) to the epoch day.
+     *
+     * @param idx index of the field
+     * @return decoded epoch day, {@code INVALID} if the field is not a valid date
+     */
+    public int getEpochDay(int idx) {
+        if (getFieldLength(idx) != 10) {
+            return INVALID;
+        }
+
+        int pos = fieldStart[idx];
+        if (buffer.get(pos + 4) != '-' || buffer.get(pos + 7) != '-') {
+            return INVALID;
+        }
+
+        int year = digits(pos, 4);
+        int month = digits(pos + 5, 2);
+        int day = digits(pos + 8, 2);
+
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Decode the field at {@code idx} in ISO format ({@code yyyy-MM-dd}) to {@code LocalDate}.
+     * <p>
+     * The same {@code LocalDate} instance is returned for the consecutive lines having the same date.
+     *
+     * @param idx index of the field
+     * @return decoded date, {@code null} if the field is not a valid date
+     */
+    public LocalDate getDate(int idx) {
+        int epochDay = getEpochDay(idx);
+        if (epochDay == INVALID) {
+            return null;
+        }
+
+        if (epochDay != lastEpochDay) {
+            lastEpochDay = epochDay;
+            lastDate = LocalDate.ofEpochDay(epochDay);
+        }
+
+        return lastDate;
+    }
+
+    /**
+     * Decode {@code count} digits starting at {@code pos}.
+     *
+     * @return decoded number, -1 if any of the byte is not a digit
+     */
+    private int digits(int pos, int count) {
+        int val = 0;
+
+        for (int i = 0; i < count; i++) {
+            int digit = buffer.get(pos + i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            val = val * 10 + digit;
+        }
+
+        return val;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Same algorithm as {@code LocalDate.toEpochDay()}.
+     */
+    static int toEpochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+
+        // Days from 0000-01-01 to 1970-01-01
+        return (int) (total - 719528);
+    }
+}
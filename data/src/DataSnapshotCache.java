@@ -0,0 +1,400 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary columnar snapshot of the parsed data file, stored next to the data file.
+ * <p>
+ * The snapshot is keyed by the size, the last modified time and the content hash of the data file,
+ * and by the fingerprint of the population data the entries were resolved against.
+ * The key must be taken before parsing the data file, and only the bytes covered by the key must be parsed,
+ * so lines appended during the parsing never end up in a snapshot claiming to cover them.
+ * <p>
+ * Entries are validated against the date of the parsing, so a snapshot of a data file
+ * having any line rejected for the date is only used on the same date.
+ * <p>
+ * Layout of the snapshot file:
+ * <ul>
+ *     <li>Header - magic, version, key, validation date, line count, accepted count, rejected count of each status</li>
+ *     <li>Row count</li>
+ *     <li>Columns - epoch day, state ID, county ID, confirmed, fatal. Each is an {@code int[row count]}.</li>
+ * </ul>
+ * State ID is the index in {@code UnitedStates.getStates()}.
+ * County ID is the index in {@code State.getCounties()}, or {@code -1} if the entry does not have a county.
+ */
+public class DataSnapshotCache {
+    public static final String FILE_EXTENSION = ".snapshot";
+
+    private static final int MAGIC = 0x43313953; // C19S
+    private static final int VERSION = 2;
+
+    private static final int COLUMN_COUNT = 5;
+    private static final int NO_COUNTY = -1;
+
+    /**
+     * Get the path of the snapshot file of the data file at {@code dataPath}.
+     *
+     * @param dataPath path of the data file
+     * @return path of the snapshot file
+     */
+    public static Path snapshotPath(String dataPath) {
+        return Paths.get(dataPath + FILE_EXTENSION);
+    }
+
+    /**
+     * Take the key of the current content of the data file at {@code dataPath}
+     * with the population data of {@code UnitedStates.current()}.
+     *
+     * @param dataPath path of the data file
+     * @return key covering the first {@code getSize()} bytes of the data file
+     * @throws IOException thrown if failed to read the data file
+     */
+    public static SnapshotKey key(String dataPath) throws IOException {
+        return SnapshotKey.of(dataPath, UnitedStates.current());
+    }
+
+    /**
+     * Load the data entries from the snapshot of the data file at {@code dataPath}.
+     *
+     * @param dataPath path of the data file
+     * @param key key of the data file taken by {@code key(String)}
+     * @param today current date. A snapshot having any line rejected for the date must be validated on this date.
+     * @param report report to record the line counts stored in the snapshot
+     * @return data entries in file order. {@code null} if the snapshot does not exist or is outdated.
+     * @throws IOException thrown if failed to read the snapshot
+     */
+    public static List<DataEntry> load(String dataPath, SnapshotKey key, LocalDate today,
+                                       IngestRejectionReport report) throws IOException {
+        Path path = snapshotPath(dataPath);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        UnitedStates unitedStates = UnitedStates.current();
+        if (key.populationFingerprint != SnapshotKey.populationFingerprint(unitedStates)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < headerSize() || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            if (!key.equals(SnapshotKey.read(buffer))) {
+                return null;
+            }
+
+            long validationDay = buffer.getLong();
+            IngestRejectionReport stored = readReport(buffer);
+
+            // Lines rejected for the date may be valid now
+            if (stored.getRejectedCount(DataEntryStatus.INVALID_DATE) > 0 && validationDay != today.toEpochDay()) {
+                return null;
+            }
+
+            int rowCount = buffer.getInt();
+            if (buffer.remaining() != (long) rowCount * COLUMN_COUNT * Integer.BYTES) {
+                return null;
+            }
+
+            List<DataEntry> entries = readColumns(buffer, rowCount, unitedStates);
+            if (entries == null) {
+                return null;
+            }
+
+            report.merge(stored);
+
+            return entries;
+        }
+    }
+
+    /**
+     * Save {@code entries} as the snapshot of the data file at {@code dataPath}.
+     * <p>
+     * Nothing is saved if any entry is not located in {@code UnitedStates.current()},
+     * or if the population data has been reloaded since {@code key} was taken.
+     *
+     * @param dataPath path of the data file
+     * @param key key of the data file taken by {@code key(String)} before parsing it
+     * @param today date the entries were validated against
+     * @param entries data entries parsed from the bytes covered by {@code key}
+     * @param report report filled when parsing the data file
+     * @return if the snapshot is saved
+     * @throws IOException thrown if failed to write the snapshot
+     */
+    public static boolean save(String dataPath, SnapshotKey key, LocalDate today, List<DataEntry> entries,
+                               IngestRejectionReport report) throws IOException {
+        int rowCount = entries.size();
+        int[][] columns = new int[COLUMN_COUNT][rowCount];
+
+        UnitedStates unitedStates = UnitedStates.current();
+        if (key.populationFingerprint != SnapshotKey.populationFingerprint(unitedStates)) {
+            return false;
+        }
+        Map<State, Integer> stateIds = new IdentityHashMap<>();
+        Map<County, Integer> countyIds = new IdentityHashMap<>();
+        List<State> states = unitedStates.getStates();
+        for (int i = 0; i < states.size(); i++) {
+            stateIds.put(states.get(i), i);
+
+            List<County> counties = states.get(i).getCounties();
+            for (int j = 0; j < counties.size(); j++) {
+                countyIds.put(counties.get(j), j);
+            }
+        }
+
+        for (int row = 0; row < rowCount; row++) {
+            DataEntry entry = entries.get(row);
+
+            Integer stateId = stateIds.get(entry.getState());
+            Integer countyId = entry.getCounty() == null
+                    ? Integer.valueOf(NO_COUNTY)
+                    : countyIds.get(entry.getCounty());
+            if (stateId == null || countyId == null) {
+                return false;
+            }
+
+            columns[0][row] = (int) entry.getDate().toEpochDay();
+            columns[1][row] = stateId;
+            columns[2][row] = countyId;
+            columns[3][row] = entry.getConfirmed();
+            columns[4][row] = entry.getFatal();
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize() + Integer.BYTES);
+        header.putInt(MAGIC).putInt(VERSION);
+        key.write(header);
+        header.putLong(today.toEpochDay());
+        writeReport(header, report);
+        header.putInt(rowCount);
+        header.flip();
+
+        // Write to a temporary file first, so a partially written snapshot is never loaded
+        Path path = snapshotPath(dataPath);
+        Path temp = Paths.get(path + ".tmp");
+        try (FileChannel channel = FileChannel.open(
+                temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+
+            for (int[] column : columns) {
+                ByteBuffer buffer = ByteBuffer.allocate(rowCount * Integer.BYTES);
+                buffer.asIntBuffer().put(column);
+                writeFully(channel, buffer);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+
+        return true;
+    }
+
+    /**
+     * Delete the snapshot of the data file at {@code dataPath} if exists.
+     *
+     * @param dataPath path of the data file
+     * @throws IOException thrown if failed to delete the snapshot
+     */
+    public static void invalidate(String dataPath) throws IOException {
+        Files.deleteIfExists(snapshotPath(dataPath));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Size of the header in bytes, excluding the row count.
+     */
+    private static int headerSize() {
+        return Integer.BYTES * 2 + SnapshotKey.BYTES + Long.BYTES * (3 + DataEntryStatus.values().length);
+    }
+
+    private static void writeReport(ByteBuffer buffer, IngestRejectionReport report) {
+        buffer.putLong(report.getLineCount());
+        buffer.putLong(report.getAcceptedCount());
+        for (DataEntryStatus status : DataEntryStatus.values()) {
+            buffer.putLong(report.getRejectedCount(status));
+        }
+    }
+
+    /**
+     * Read the stored line counts. Rejected line numbers are not stored in the snapshot.
+     */
+    private static IngestRejectionReport readReport(ByteBuffer buffer) {
+        long lineCount = buffer.getLong();
+        long acceptedCount = buffer.getLong();
+
+        Map<DataEntryStatus, Integer> rejectedCounts = new EnumMap<>(DataEntryStatus.class);
+        for (DataEntryStatus status : DataEntryStatus.values()) {
+            rejectedCounts.put(status, (int) buffer.getLong());
+        }
+
+        return IngestRejectionReport.ofCounts(lineCount, acceptedCount, rejectedCounts);
+    }
+
+    /**
+     * Read the columns and create the data entries.
+     *
+     * @return data entries. {@code null} if any of the location ID does not exist.
+     */
+    private static List<DataEntry> readColumns(ByteBuffer buffer, int rowCount, UnitedStates unitedStates) {
+        IntBuffer[] columns = new IntBuffer[COLUMN_COUNT];
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            buffer.limit(buffer.position() + rowCount * Integer.BYTES);
+            columns[i] = buffer.slice().asIntBuffer();
+            buffer.position(buffer.limit());
+        }
+
+        List<State> states = unitedStates.getStates();
+        List<DataEntry> entries = new ArrayList<>(rowCount);
+
+        int lastEpochDay = Integer.MIN_VALUE;
+        LocalDate date = null;
+
+        for (int row = 0; row < rowCount; row++) {
+            int epochDay = columns[0].get(row);
+            int stateId = columns[1].get(row);
+            int countyId = columns[2].get(row);
+
+            if (stateId < 0 || stateId >= states.size()) {
+                return null;
+            }
+            State state = states.get(stateId);
+
+            County county = null;
+            if (countyId != NO_COUNTY) {
+                if (countyId < 0 || countyId >= state.getCounties().size()) {
+                    return null;
+                }
+                county = state.getCounties().get(countyId);
+            }
+
+            if (epochDay != lastEpochDay) {
+                lastEpochDay = epochDay;
+                date = LocalDate.ofEpochDay(epochDay);
+            }
+
+            entries.add(DataEntry.createValidated(date, state, county, columns[3].get(row), columns[4].get(row)));
+        }
+
+        return entries;
+    }
+
+    /**
+     * Key to check if a snapshot is up-to-date, covering the first {@code getSize()} bytes of a data file.
+     */
+    public static class SnapshotKey {
+        private static final int BYTES = Long.BYTES * 4;
+        private static final long HASH_WINDOW_SIZE = 1L << 30;
+
+        private final long size;
+        private final long lastModified;
+        private final long contentHash;
+        private final long populationFingerprint;
+
+        private SnapshotKey(long size, long lastModified, long contentHash, long populationFingerprint) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.contentHash = contentHash;
+            this.populationFingerprint = populationFingerprint;
+        }
+
+        /**
+         * Create the key of the data file at {@code dataPath} with the population data of {@code unitedStates}.
+         * <p>
+         * The last modified time is read before the size, so a line appended in between makes the key outdated,
+         * and the content hash only covers the bytes within the size.
+         */
+        private static SnapshotKey of(String dataPath, UnitedStates unitedStates) throws IOException {
+            Path path = Paths.get(dataPath);
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+            CRC32 crc = new CRC32();
+            long size;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                size = channel.size();
+
+                // a single mapping is limited to Integer.MAX_VALUE bytes
+                for (long start = 0; start < size; start += HASH_WINDOW_SIZE) {
+                    long length = Math.min(HASH_WINDOW_SIZE, size - start);
+                    crc.update(channel.map(FileChannel.MapMode.READ_ONLY, start, length));
+                }
+            }
+
+            return new SnapshotKey(size, lastModified, crc.getValue(), populationFingerprint(unitedStates));
+        }
+
+        /**
+         * Get the count of the bytes of the data file covered by this key.
+         *
+         * @return size of the data file when this key was taken
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Fingerprint of the location IDs of {@code unitedStates}.
+         */
+        private static long populationFingerprint(UnitedStates unitedStates) {
+            long hash = 17;
+
+            for (State state : unitedStates.getStates()) {
+                hash = 31 * hash + state.getAbbr().hashCode();
+
+                for (County county : state.getCounties()) {
+                    hash = 31 * hash + county.getName().hashCode();
+                    hash = 31 * hash + county.getPopulation();
+                }
+            }
+
+            return hash;
+        }
+
+        private static SnapshotKey read(ByteBuffer buffer) {
+            return new SnapshotKey(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+
+        private void write(ByteBuffer buffer) {
+            buffer.putLong(size).putLong(lastModified).putLong(contentHash).putLong(populationFingerprint);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            SnapshotKey that = (SnapshotKey) o;
+
+            if (size != that.size) return false;
+            if (lastModified != that.lastModified) return false;
+            if (contentHash != that.contentHash) return false;
+            return populationFingerprint == that.populationFingerprint;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Long.hashCode(size);
+            result = 31 * result + Long.hashCode(lastModified);
+            result = 31 * result + Long.hashCode(contentHash);
+            result = 31 * result + Long.hashCode(populationFingerprint);
+            return result;
+        }
+    }
+}
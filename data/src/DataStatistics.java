@@ -0,0 +1,130 @@
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Statistics of {@code DataColumns}, used to estimate the selectivity of each term of a filter.
+ * <p>
+ * The histograms of confirmed, fatal, the values per 100K residents and the date
+ * are collected from a systematic sample of at most {@code SAMPLE_SIZE} rows,
+ * so collecting is cheap regardless of the count of the rows.
+ * The selectivity of the locations is estimated from the count of the distinct locations.
+ */
+public class DataStatistics {
+    /**
+     * Maximum count of the rows sampled for the histograms.
+     */
+    public static final int SAMPLE_SIZE = 1 << 16;
+
+    /**
+     * Selectivity of the terms without the statistics.
+     */
+    public static final double DEFAULT_SELECTIVITY = 1.0 / 3;
+
+    private final int rowCount;
+    private final int stateCount;
+    private final int countyCount;
+    private final Map<FilterParameter, ColumnStatistics> columns = new EnumMap<>(FilterParameter.class);
+
+    private DataStatistics(int rowCount, int stateCount, int countyCount) {
+        this.rowCount = rowCount;
+        this.stateCount = stateCount;
+        this.countyCount = countyCount;
+    }
+
+    /**
+     * Collect the statistics of {@code data}.
+     *
+     * @param data columns to collect the statistics of
+     * @return statistics of the columns
+     */
+    public static DataStatistics of(DataColumns data) {
+        int rowCount = data.size();
+        DataStatistics statistics = new DataStatistics(rowCount, data.getStateCount(), data.getCountyCount());
+
+        int step = Math.max(1, (rowCount + SAMPLE_SIZE - 1) / SAMPLE_SIZE);
+        int sampleSize = (rowCount + step - 1) / step;
+
+        double[] epochDays = new double[sampleSize];
+        double[] confirmed = new double[sampleSize];
+        double[] fatal = new double[sampleSize];
+        double[] confirmedPer100K = new double[sampleSize];
+        double[] fatalPer100K = new double[sampleSize];
+
+        for (int i = 0; i < sampleSize; i++) {
+            int row = i * step;
+
+            epochDays[i] = data.getEpochDay(row);
+            confirmed[i] = data.getConfirmed(row);
+            fatal[i] = data.getFatal(row);
+            confirmedPer100K[i] = data.getConfirmedPer100K(row);
+            fatalPer100K[i] = data.getFatalPer100K(row);
+        }
+
+        statistics.columns.put(FilterParameter.DATE, ColumnStatistics.of(epochDays));
+        statistics.columns.put(FilterParameter.CONFIRMED, ColumnStatistics.of(confirmed));
+        statistics.columns.put(FilterParameter.FATAL, ColumnStatistics.of(fatal));
+        statistics.columns.put(FilterParameter.CONFIRMED_PER100K, ColumnStatistics.of(confirmedPer100K));
+        statistics.columns.put(FilterParameter.FATAL_PER100K, ColumnStatistics.of(fatalPer100K));
+
+        return statistics;
+    }
+
+    /**
+     * Estimate the fraction of the rows matching {@code entity}.
+     *
+     * @param entity term of the filter
+     * @param val casted value of {@code entity}
+     * @return estimated fraction from {@code 0} to {@code 1}
+     */
+    public double selectivity(FilterConditionEntity entity, Object val) {
+        FilterParameter parameter = entity.getParameter();
+        FilterComparator comparator = entity.getComparator();
+
+        switch (parameter) {
+            case DATE:
+                return columns.get(parameter).selectivity(comparator, ((LocalDate) val).toEpochDay());
+            case CONFIRMED:
+            case FATAL:
+                return columns.get(parameter).selectivity(comparator, (int) val);
+            case CONFIRMED_PER100K:
+            case FATAL_PER100K:
+                return columns.get(parameter).selectivity(comparator, (double) val);
+            case STATE:
+                if (val == null) {
+                    return 0;
+                }
+                return comparator == FilterComparator.EQ && stateCount > 0 ? 1.0 / stateCount : DEFAULT_SELECTIVITY;
+            case COUNTY:
+            case ZIP_CODE:
+                if (val == null) {
+                    return 0;
+                }
+                return comparator == FilterComparator.EQ && countyCount > 0 ? 1.0 / countyCount : DEFAULT_SELECTIVITY;
+            default:
+                return DEFAULT_SELECTIVITY;
+        }
+    }
+
+    /**
+     * Get the statistics of the column of {@code parameter}.
+     *
+     * @param parameter parameter of the column
+     * @return statistics of the column. {@code null} if not collected.
+     */
+    public ColumnStatistics getColumn(FilterParameter parameter) {
+        return columns.get(parameter);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    public int getCountyCount() {
+        return countyCount;
+    }
+}
@@ -0,0 +1,472 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * Immutable plan compiled from a {@code FilterCondition} to filter the data entries.
+ * <p>
+ * The value of each {@code FilterConditionEntity} is casted exactly once when compiling,
+ * and the locations are resolved from a single snapshot of {@code UnitedStates}.
+ * Testing an entry only evaluates the predicates closing over the casted values.
+ * <p>
+ * The predicates are evaluated on {@code IDataRow}, so the same plan filters both
+ * the data entries and the rows of {@code DataColumns}.
+ * <p>
+ * A plan can be shared among the threads.
+ */
+public class FilterPlan implements Predicate<DataEntry> {
+    /**
+     * Selections are narrowed sequentially unless the rows times the residual predicates reach this.
+     */
+    public static final long PARALLEL_THRESHOLD = 1 << 16;
+
+    /**
+     * Minimum count of the rows narrowed by a task, so the selection and the columns of a task stay in the cache.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 13;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final FilterCondition condition;
+    private final UnitedStates unitedStates;
+
+    /**
+     * Compiled terms. The 1st dimension is OR, and the 2nd dimension is AND.
+     */
+    private final Term[][] terms;
+
+    /**
+     * Predicates of {@code terms}.
+     */
+    private final Predicate<IDataRow>[][] predicates;
+
+    /**
+     * Predicates of each AND group answered by the bitmap indexes, and the residual ones tested row by row.
+     */
+    private final IndexedPredicate[][] indexed;
+    private final Predicate<IDataRow>[][] residual;
+
+    @SuppressWarnings("unchecked")
+    private FilterPlan(FilterCondition condition, UnitedStates unitedStates, Term[][] terms) {
+        this.condition = condition;
+        this.unitedStates = unitedStates;
+        this.terms = terms;
+
+        this.predicates = (Predicate<IDataRow>[][]) new Predicate<?>[terms.length][];
+        this.indexed = new IndexedPredicate[terms.length][];
+        this.residual = (Predicate<IDataRow>[][]) new Predicate<?>[terms.length][];
+        for (int i = 0; i < terms.length; i++) {
+            predicates[i] = newPredicates(terms[i].length);
+
+            List<IndexedPredicate> indexedAND = new ArrayList<>();
+            List<Predicate<IDataRow>> residualAND = new ArrayList<>();
+            IndexedPredicate.EpochDayRange dates = null;
+
+            for (int j = 0; j < terms[i].length; j++) {
+                Predicate<IDataRow> predicate = terms[i][j].predicate;
+                predicates[i][j] = predicate;
+
+                if (predicate instanceof IndexedPredicate.EpochDayRange) {
+                    IndexedPredicate.EpochDayRange range = (IndexedPredicate.EpochDayRange) predicate;
+                    dates = dates == null ? range : dates.intersect(range);
+                } else if (predicate instanceof IndexedPredicate) {
+                    indexedAND.add((IndexedPredicate) predicate);
+                } else {
+                    residualAND.add(predicate);
+                }
+            }
+
+            // Bounds of the dates are merged into a single range, looked up first
+            if (dates != null) {
+                indexedAND.add(0, dates);
+            }
+
+            indexed[i] = indexedAND.toArray(new IndexedPredicate[0]);
+            residual[i] = residualAND.toArray(newPredicates(0));
+        }
+    }
+
+    /**
+     * Create an array of the predicates, which cannot be created directly as the type is generic.
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate<IDataRow>[] newPredicates(int length) {
+        return (Predicate<IDataRow>[]) new Predicate<?>[length];
+    }
+
+    /**
+     * Compile {@code condition} resolving the locations from {@code UnitedStates.current()}.
+     *
+     * @param condition condition to filter the data
+     * @return compiled plan
+     * @throws FilterSyntaxError thrown if any of the parameter cannot be handled
+     */
+    public static FilterPlan compile(FilterCondition condition) throws FilterSyntaxError {
+        return compile(condition, UnitedStates.current());
+    }
+
+    /**
+     * Compile {@code condition} resolving the locations from {@code unitedStates}.
+     *
+     * @param condition condition to filter the data
+     * @param unitedStates population data to resolve the locations from
+     * @return compiled plan
+     * @throws FilterSyntaxError thrown if any of the parameter cannot be handled
+     */
+    public static FilterPlan compile(FilterCondition condition, UnitedStates unitedStates) throws FilterSyntaxError {
+        List<List<FilterConditionEntity>> conditions = condition.getConditions();
+        Term[][] terms = new Term[conditions.size()][];
+
+        for (int i = 0; i < conditions.size(); i++) {
+            List<FilterConditionEntity> entitiesAND = conditions.get(i);
+            terms[i] = new Term[entitiesAND.size()];
+
+            for (int j = 0; j < entitiesAND.size(); j++) {
+                FilterConditionEntity entity = entitiesAND.get(j);
+                Object val = entity.getVal(unitedStates);
+
+                terms[i][j] = new Term(entity, val, ConditionPredicateConverter.convertEntity(entity, val, unitedStates));
+            }
+        }
+
+        return new FilterPlan(condition, unitedStates, terms);
+    }
+
+    /**
+     * Create the plan of which the terms are ordered by their selectivity estimated from {@code statistics}.
+     * <p>
+     * The terms of each AND group are ordered by {@code cost / (1 - selectivity)} ascending,
+     * so cheap terms rejecting most of the rows are evaluated first.
+     * The OR groups are ordered by {@code selectivity / cost} descending,
+     * so the groups most likely to accept a row cheaply are evaluated first.
+     *
+     * @param statistics statistics of the data to be filtered
+     * @return plan with the reordered terms, matching exactly the same data
+     */
+    public FilterPlan reorder(DataStatistics statistics) {
+        Term[][] reordered = new Term[terms.length][];
+        double[] ranks = new double[terms.length];
+        Integer[] order = new Integer[terms.length];
+
+        for (int i = 0; i < terms.length; i++) {
+            double[] termRanks = new double[terms[i].length];
+            double[] selectivities = new double[terms[i].length];
+            Integer[] termOrder = new Integer[terms[i].length];
+
+            for (int j = 0; j < terms[i].length; j++) {
+                Term term = terms[i][j];
+                selectivities[j] = statistics.selectivity(term.entity, term.val);
+                termRanks[j] = selectivities[j] >= 1
+                        ? Double.POSITIVE_INFINITY
+                        : cost(term.entity.getParameter()) / (1 - selectivities[j]);
+                termOrder[j] = j;
+            }
+            Arrays.sort(termOrder, Comparator.comparingDouble(j -> termRanks[j]));
+
+            // Each term is only evaluated on the rows passed by the previous terms
+            double selectivity = 1;
+            double cost = 0;
+            reordered[i] = new Term[terms[i].length];
+            for (int j = 0; j < termOrder.length; j++) {
+                reordered[i][j] = terms[i][termOrder[j]];
+                cost += selectivity * cost(reordered[i][j].entity.getParameter());
+                selectivity *= selectivities[termOrder[j]];
+            }
+
+            ranks[i] = cost == 0 ? Double.POSITIVE_INFINITY : selectivity / cost;
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> -ranks[i]));
+
+        Term[][] orderedOR = new Term[terms.length][];
+        for (int i = 0; i < order.length; i++) {
+            orderedOR[i] = reordered[order[i]];
+        }
+
+        return new FilterPlan(condition, unitedStates, orderedOR);
+    }
+
+    /**
+     * Relative cost to evaluate a term of {@code parameter} on a row.
+     */
+    private static double cost(FilterParameter parameter) {
+        switch (parameter) {
+            case DATE:
+            case CONFIRMED:
+            case FATAL:
+                return 1;
+            case CONFIRMED_PER100K:
+            case FATAL_PER100K:
+            case DEATH_RATE:
+            case LATITUDE:
+            case LONGITUDE:
+                return 2;
+            case COUNTY:
+            case ZIP_CODE:
+            case WITHIN:
+                return 3;
+            default:
+                // State is compared by both the abbreviation and the name
+                return 4;
+        }
+    }
+
+    /**
+     * Check if {@code entry} matches the condition. Every entry matches an empty condition.
+     *
+     * @param entry data entry to be checked
+     * @return if {@code entry} matches the condition
+     */
+    @Override
+    public boolean test(DataEntry entry) {
+        if (predicates.length == 0) {
+            return true;
+        }
+
+        for (Predicate<IDataRow>[] predicatesAND : predicates) {
+            if (testAll(predicatesAND, entry)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean testAll(Predicate<IDataRow>[] predicatesAND, IDataRow row) {
+        for (Predicate<IDataRow> predicate : predicatesAND) {
+            if (!predicate.test(row)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Select the rows of {@code columns} matching the condition.
+     * <p>
+     * The bitmaps of the indexed predicates of an AND group are intersected first.
+     * Each residual predicate then narrows the selection vector of the previous one,
+     * so the later predicates only scan the rows still selected.
+     * The rows of the OR groups are merged as bitmaps.
+     *
+     * @param columns columns to be filtered
+     * @return selection vector, which is the sorted array of the matching rows
+     */
+    public int[] select(DataColumns columns) {
+        return select(columns, null);
+    }
+
+    /**
+     * Select the rows of {@code columns} matching the condition, narrowing large selections on {@code pool}.
+     * <p>
+     * A large selection is split into chunks narrowed in parallel, and the chunks are reassembled in order,
+     * so the result is identical to {@code select(DataColumns)}.
+     * Selections smaller than {@code PARALLEL_THRESHOLD} for the count of the residual predicates
+     * are narrowed sequentially, as splitting them costs more than it saves.
+     *
+     * @param columns columns to be filtered
+     * @param pool pool to narrow the selections on. {@code null} to narrow sequentially.
+     * @return selection vector, which is the sorted array of the matching rows
+     * @see #select(DataColumns)
+     */
+    public int[] select(DataColumns columns, ForkJoinPool pool) {
+        if (predicates.length == 0) {
+            return columns.allRows();
+        }
+
+        if (predicates.length == 1) {
+            return selectAND(0, columns, pool);
+        }
+
+        RowBitmap matched = RowBitmap.empty();
+        for (int i = 0; i < predicates.length; i++) {
+            boolean indexOnly = residual[i].length == 0 && indexed[i].length > 0;
+            matched = matched.or(indexOnly ? lookupAND(i, columns) : RowBitmap.of(selectAND(i, columns, pool)));
+        }
+
+        return matched.toArray();
+    }
+
+    /**
+     * Select the rows matching the AND group {@code i}.
+     */
+    private int[] selectAND(int i, DataColumns columns, ForkJoinPool pool) {
+        RowBitmap rows = lookupAND(i, columns);
+        int[] selection = rows == null ? columns.allRows() : rows.toArray();
+
+        return narrow(residual[i], columns, selection, pool);
+    }
+
+    /**
+     * Intersect the bitmaps of the indexed predicates of the AND group {@code i}.
+     *
+     * @return rows matching all indexed predicates. {@code null} if the group has no indexed predicate.
+     */
+    private RowBitmap lookupAND(int i, DataColumns columns) {
+        RowBitmap rows = null;
+
+        for (IndexedPredicate predicate : indexed[i]) {
+            RowBitmap lookedUp = predicate.lookup(columns);
+            rows = rows == null ? lookedUp : rows.and(lookedUp);
+
+            if (rows.isEmpty()) {
+                break;
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Narrow {@code selection} in place by each of {@code predicatesAND}.
+     *
+     * @return rows of {@code selection} matching all of {@code predicatesAND}
+     */
+    private static int[] narrow(
+            Predicate<IDataRow>[] predicatesAND, DataColumns columns, int[] selection, ForkJoinPool pool) {
+        int count;
+
+        if (pool == null || pool.getParallelism() < 2
+                || (long) selection.length * predicatesAND.length < PARALLEL_THRESHOLD) {
+            count = narrowRange(predicatesAND, columns, selection, 0, selection.length);
+        } else {
+            int chunkSize = Math.max(MIN_CHUNK_SIZE,
+                    (selection.length + pool.getParallelism() * CHUNKS_PER_THREAD - 1)
+                            / (pool.getParallelism() * CHUNKS_PER_THREAD));
+            int chunkCount = (selection.length + chunkSize - 1) / chunkSize;
+
+            int[] kept = new int[chunkCount];
+            pool.invoke(new NarrowTask(predicatesAND, columns, selection, chunkSize, kept, 0, chunkCount));
+
+            // Reassemble the kept rows of the chunks in order
+            count = 0;
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                System.arraycopy(selection, chunk * chunkSize, selection, count, kept[chunk]);
+                count += kept[chunk];
+            }
+        }
+
+        return count == selection.length ? selection : Arrays.copyOf(selection, count);
+    }
+
+    /**
+     * Narrow {@code selection[from]} to {@code selection[to - 1]} in place, moving the kept rows to {@code from}.
+     *
+     * @return count of the kept rows
+     */
+    private static int narrowRange(
+            Predicate<IDataRow>[] predicatesAND, DataColumns columns, int[] selection, int from, int to) {
+        DataColumns.Row cursor = columns.cursor();
+        int end = to;
+
+        for (Predicate<IDataRow> predicate : predicatesAND) {
+            int kept = from;
+            for (int i = from; i < end; i++) {
+                int row = selection[i];
+                if (predicate.test(cursor.moveTo(row))) {
+                    selection[kept++] = row;
+                }
+            }
+            end = kept;
+        }
+
+        return end - from;
+    }
+
+    public FilterCondition getCondition() {
+        return condition;
+    }
+
+    /**
+     * Get the terms of the condition in the order they are evaluated.
+     *
+     * @return condition of the terms in the evaluation order
+     */
+    public FilterCondition getEvaluationOrder() {
+        FilterCondition ordered = new FilterCondition();
+        for (Term[] termsAND : terms) {
+            List<FilterConditionEntity> entitiesAND = new ArrayList<>();
+            for (Term term : termsAND) {
+                entitiesAND.add(term.entity);
+            }
+            ordered.pushConditionsAND(entitiesAND);
+        }
+
+        return ordered;
+    }
+
+    /**
+     * Get the snapshot of the population data the locations are resolved from.
+     *
+     * @return snapshot of the population data
+     */
+    public UnitedStates getUnitedStates() {
+        return unitedStates;
+    }
+
+    @Override
+    public String toString() {
+        return condition.toString();
+    }
+
+    /**
+     * A term of the condition with its casted value and its predicate.
+     */
+    private static class Term {
+        private final FilterConditionEntity entity;
+        private final Object val;
+        private final Predicate<IDataRow> predicate;
+
+        private Term(FilterConditionEntity entity, Object val, Predicate<IDataRow> predicate) {
+            this.entity = entity;
+            this.val = val;
+            this.predicate = predicate;
+        }
+    }
+
+    /**
+     * Task narrowing the chunks from {@code from} (inclusive) to {@code to} (exclusive) of a selection.
+     */
+    private static class NarrowTask extends RecursiveAction {
+        private final Predicate<IDataRow>[] predicatesAND;
+        private final DataColumns columns;
+        private final int[] selection;
+        private final int chunkSize;
+        private final int[] kept;
+        private final int from;
+        private final int to;
+
+        NarrowTask(Predicate<IDataRow>[] predicatesAND, DataColumns columns, int[] selection, int chunkSize,
+                   int[] kept, int from, int to) {
+            this.predicatesAND = predicatesAND;
+            this.columns = columns;
+            this.selection = selection;
+            this.chunkSize = chunkSize;
+            this.kept = kept;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                int start = from * chunkSize;
+                int end = Math.min(start + chunkSize, selection.length);
+                kept[from] = narrowRange(predicatesAND, columns, selection, start, end);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            NarrowTask left = new NarrowTask(predicatesAND, columns, selection, chunkSize, kept, from, mid);
+            NarrowTask right = new NarrowTask(predicatesAND, columns, selection, chunkSize, kept, mid, to);
+
+            right.fork();
+            left.compute();
+            right.join();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of the data filtered from a base {@code DataHolder}, including the daily stats of the filtered data.
+ * <p>
+ * Results are keyed by the normalized {@code FilterCondition}, so the same query typed in a different order
+ * hits the same result. The cache is bounded by both the count of the results and the total count of the entries
+ * in the results. The least recently used results are evicted first.
+ * <p>
+ * All results are dropped when the base data is replaced, when any entry is appended to it,
+ * or when the population data is reloaded.
+ * <p>
+ * A condition stricter than the condition of the data filtered before, such as the displayed data,
+ * is evaluated against that data instead of the base data, as the entries matching it are all in that data.
+ */
+public class FilterResultCache {
+    private final int maxResults;
+    private final long maxEntries;
+
+    // Access-ordered, so the eldest is the least recently used
+    private final LinkedHashMap<FilterCondition, DataHolder> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedEntries;
+
+    // Base data of the cached results
+    private DataHolder base;
+    private long baseVersion;
+    private long unitedStatesVersion;
+
+    private long hitCount;
+    private long missCount;
+    private long refineCount;
+
+    /**
+     * @param maxResults maximum count of the cached results
+     * @param maxEntries maximum total count of the entries in the cached results
+     */
+    public FilterResultCache(int maxResults, long maxEntries) {
+        this.maxResults = maxResults;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Filter {@code base} using {@code condition}, returning the cached result if available.
+     * <p>
+     * A result is shared by all the queries hitting it, so it should not be modified.
+     *
+     * @param base data to be filtered
+     * @param condition condition to be used to filter the data
+     * @return a {@code DataHolder} containing the filtered data
+     * @throws FilterSyntaxError thrown if any of the parameter cannot be handled
+     * @see DataHolder#filterData(FilterCondition)
+     */
+    public synchronized DataHolder filterData(DataHolder base, FilterCondition condition) throws FilterSyntaxError {
+        return filterData(base, condition, null);
+    }
+
+    /**
+     * Filter {@code base} using {@code condition}, returning the cached result if available.
+     * <p>
+     * If not cached and {@code condition} is provably stricter than the condition of {@code previous},
+     * {@code previous} is filtered instead of {@code base}, which gets the same entries from less data.
+     *
+     * @param base data to be filtered
+     * @param condition condition to be used to filter the data
+     * @param previous data filtered from {@code base} before and kept up to date with it,
+     *                 such as the displayed data. {@code null} to always filter {@code base}.
+     * @return a {@code DataHolder} containing the filtered data
+     * @throws FilterSyntaxError thrown if any of the parameter cannot be handled
+     * @see DataHolder#canRefine(FilterCondition)
+     */
+    public synchronized DataHolder filterData(DataHolder base, FilterCondition condition, DataHolder previous)
+            throws FilterSyntaxError {
+        long unitedStatesVersion = UnitedStates.current().getVersion();
+        if (base != this.base || base.getVersion() != baseVersion || unitedStatesVersion != this.unitedStatesVersion) {
+            invalidate();
+
+            this.base = base;
+            this.baseVersion = base.getVersion();
+            this.unitedStatesVersion = unitedStatesVersion;
+        }
+
+        FilterCondition key = condition.normalized();
+
+        DataHolder result = results.get(key);
+        if (result != null) {
+            hitCount++;
+            return result;
+        }
+
+        missCount++;
+        if (previous != null && previous != base && previous.canRefine(condition)) {
+            refineCount++;
+            result = previous.filterData(condition);
+        } else {
+            result = base.filterData(condition);
+        }
+        put(key, result);
+
+        return result;
+    }
+
+    private void put(FilterCondition key, DataHolder result) {
+        // Too large to be cached without evicting everything else
+        if (result.getDataCount() > maxEntries) {
+            return;
+        }
+
+        results.put(key, result);
+        cachedEntries += result.getDataCount();
+
+        Iterator<Map.Entry<FilterCondition, DataHolder>> eldest = results.entrySet().iterator();
+        while (results.size() > maxResults || cachedEntries > maxEntries) {
+            cachedEntries -= eldest.next().getValue().getDataCount();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Drop all cached results. The hit and miss counts are kept.
+     */
+    public synchronized void invalidate() {
+        results.clear();
+        cachedEntries = 0;
+        base = null;
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Get the count of the misses filtered from the previous data instead of the base data.
+     *
+     * @return count of the refined misses
+     */
+    public synchronized long getRefineCount() {
+        return refineCount;
+    }
+}
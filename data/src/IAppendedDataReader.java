@@ -0,0 +1,16 @@
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Interface of the class reading the data entries added to the data source after it has been loaded.
+ */
+public interface IAppendedDataReader {
+    /**
+     * Read the data entries added since the last read.
+     *
+     * @return added data entries. Empty if nothing has been added.
+     * {@code null} if the data loaded before has been modified, so the whole data has to be loaded again.
+     * @throws IOException thrown if failed to read the data source
+     */
+    List<DataEntry> readAppended() throws IOException;
+}
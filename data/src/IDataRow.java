@@ -0,0 +1,37 @@
+/**
+ * Interface of a single row of the data, which the filter predicates are evaluated on.
+ * <p>
+ * Implemented by {@code DataEntry} and by the cursor of {@code DataColumns},
+ * so the same compiled predicates can filter both of them.
+ */
+public interface IDataRow {
+    /**
+     * Get the date of the row as the epoch day.
+     *
+     * @return epoch day of the date
+     */
+    int getEpochDay();
+
+    State getState();
+
+    /**
+     * @return county of the row, {@code null} if not recorded
+     */
+    County getCounty();
+
+    int getConfirmed();
+
+    int getFatal();
+
+    /**
+     * @return confirmed cases per 100K residents, {@code -1} if the population of the location is {@code 0}
+     */
+    double getConfirmedPer100K();
+
+    /**
+     * @return fatal cases per 100K residents, {@code -1} if the population of the location is {@code 0}
+     */
+    double getFatalPer100K();
+
+    double getDeathRatePercent();
+}
@@ -0,0 +1,111 @@
+import java.util.function.Predicate;
+
+/**
+ * Predicate of a filter which can also be answered by the bitmap indexes of {@code DataColumns}.
+ * <p>
+ * {@code FilterPlan} intersects the bitmaps of the indexed predicates of an AND group
+ * before testing the other predicates row by row.
+ */
+public abstract class IndexedPredicate implements Predicate<IDataRow> {
+    /**
+     * Look up the rows of {@code columns} matching this predicate from its indexes.
+     *
+     * @param columns columns to be filtered
+     * @return bitmap of the matching rows, which must not be modified
+     */
+    public abstract RowBitmap lookup(DataColumns columns);
+
+    /**
+     * Create a predicate which only depends on the state of the rows.
+     *
+     * @param predicate predicate of the state
+     * @return indexed predicate of the state
+     */
+    public static IndexedPredicate ofState(Predicate<State> predicate) {
+        return new IndexedPredicate() {
+            @Override
+            public RowBitmap lookup(DataColumns columns) {
+                return columns.rowsOfStates(predicate);
+            }
+
+            @Override
+            public boolean test(IDataRow row) {
+                State state = row.getState();
+                return state != null && predicate.test(state);
+            }
+        };
+    }
+
+    /**
+     * Create a predicate which only depends on the county of the rows. Rows without the county never match.
+     *
+     * @param predicate predicate of the county
+     * @return indexed predicate of the county
+     */
+    public static IndexedPredicate ofCounty(Predicate<County> predicate) {
+        return new IndexedPredicate() {
+            @Override
+            public RowBitmap lookup(DataColumns columns) {
+                return columns.rowsOfCounties(predicate);
+            }
+
+            @Override
+            public boolean test(IDataRow row) {
+                County county = row.getCounty();
+                return county != null && predicate.test(county);
+            }
+        };
+    }
+
+    /**
+     * Create a predicate matching the rows of the dates from {@code fromEpochDay} to {@code toEpochDay}.
+     *
+     * @param fromEpochDay epoch day of the first date, inclusive
+     * @param toEpochDay epoch day of the last date, inclusive
+     * @return indexed predicate of the date range
+     */
+    public static EpochDayRange ofEpochDays(int fromEpochDay, int toEpochDay) {
+        return new EpochDayRange(fromEpochDay, toEpochDay);
+    }
+
+    /**
+     * Predicate matching the rows in a range of dates.
+     * <p>
+     * The ranges in an AND group are intersected into one, so the rows are looked up once per group.
+     */
+    public static class EpochDayRange extends IndexedPredicate {
+        private final int fromEpochDay;
+        private final int toEpochDay;
+
+        private EpochDayRange(int fromEpochDay, int toEpochDay) {
+            this.fromEpochDay = fromEpochDay;
+            this.toEpochDay = toEpochDay;
+        }
+
+        /**
+         * Intersect this range with {@code other}.
+         *
+         * @param other range to be intersected
+         * @return range of the dates in both of the ranges
+         */
+        public EpochDayRange intersect(EpochDayRange other) {
+            return new EpochDayRange(
+                    Math.max(fromEpochDay, other.fromEpochDay), Math.min(toEpochDay, other.toEpochDay));
+        }
+
+        @Override
+        public RowBitmap lookup(DataColumns columns) {
+            if (fromEpochDay == toEpochDay) {
+                return columns.rowsOfEpochDay(fromEpochDay);
+            }
+
+            return columns.rowsOfEpochDays(fromEpochDay, toEpochDay);
+        }
+
+        @Override
+        public boolean test(IDataRow row) {
+            int epochDay = row.getEpochDay();
+            return epochDay >= fromEpochDay && epochDay <= toEpochDay;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report of the lines rejected during a data file ingestion.
+ * <p>
+ * Holds the rejected line count per {@code DataEntryStatus} and the first few line numbers of each.
+ * <p>
+ * An instance is not thread-safe. Parallel ingestion fills one report per range and merges them in file order.
+ */
+public class IngestRejectionReport {
+    /**
+     * Maximum count of the sample line numbers to be kept per reason.
+     */
+    public static final int MAX_SAMPLES = 10;
+
+    private final Map<DataEntryStatus, Integer> rejectedCounts = new EnumMap<>(DataEntryStatus.class);
+    private final Map<DataEntryStatus, List<Long>> sampleLines = new EnumMap<>(DataEntryStatus.class);
+
+    private long lineCount;
+    private long acceptedCount;
+
+    /**
+     * Create a report with the given counts and without any sample line numbers.
+     *
+     * @param lineCount total count of the lines
+     * @param acceptedCount count of the accepted lines
+     * @param rejectedCounts count of the rejected lines per reason
+     * @return report having the given counts
+     */
+    public static IngestRejectionReport ofCounts(
+            long lineCount, long acceptedCount, Map<DataEntryStatus, Integer> rejectedCounts) {
+        IngestRejectionReport report = new IngestRejectionReport();
+
+        report.lineCount = lineCount;
+        report.acceptedCount = acceptedCount;
+        rejectedCounts.forEach((reason, count) -> {
+            if (count > 0) {
+                report.rejectedCounts.put(reason, count);
+            }
+        });
+
+        return report;
+    }
+
+    /**
+     * Record a line which is accepted.
+     */
+    public void accept() {
+        lineCount++;
+        acceptedCount++;
+    }
+
+    /**
+     * Record a line which is rejected.
+     *
+     * @param reason reason of the rejection
+     * @param lineNumber 1-based line number of the rejected line
+     */
+    public void reject(DataEntryStatus reason, long lineNumber) {
+        lineCount++;
+        rejectedCounts.merge(reason, 1, Integer::sum);
+
+        List<Long> samples = sampleLines.computeIfAbsent(reason, key -> new ArrayList<>());
+        if (samples.size() < MAX_SAMPLES) {
+            samples.add(lineNumber);
+        }
+    }
+
+    /**
+     * Record a line which is skipped without being parsed, such as an empty line.
+     */
+    public void skip() {
+        lineCount++;
+    }
+
+    /**
+     * Merge {@code other} which was filled for the lines right after the lines of this report.
+     * <p>
+     * Line numbers of {@code other} are shifted by the line count of this report.
+     *
+     * @param other report to be merged into this report
+     */
+    public void merge(IngestRejectionReport other) {
+        long offset = lineCount;
+
+        other.rejectedCounts.forEach((reason, count) -> rejectedCounts.merge(reason, count, Integer::sum));
+        other.sampleLines.forEach((reason, lines) -> {
+            List<Long> samples = sampleLines.computeIfAbsent(reason, key -> new ArrayList<>());
+            for (long line : lines) {
+                if (samples.size() >= MAX_SAMPLES) {
+                    break;
+                }
+                samples.add(line + offset);
+            }
+        });
+
+        lineCount += other.lineCount;
+        acceptedCount += other.acceptedCount;
+    }
+
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    /**
+     * Get the total count of the rejected lines.
+     *
+     * @return total count of the rejected lines
+     */
+    public long getRejectedCount() {
+        return rejectedCounts.values().stream().mapToLong(Integer::longValue).sum();
+    }
+
+    /**
+     * Get the count of the lines rejected for {@code reason}.
+     *
+     * @param reason reason of the rejection
+     * @return count of the lines rejected for {@code reason}
+     */
+    public int getRejectedCount(DataEntryStatus reason) {
+        return rejectedCounts.getOrDefault(reason, 0);
+    }
+
+    /**
+     * Get the first few line numbers rejected for {@code reason}.
+     *
+     * @param reason reason of the rejection
+     * @return 1-based line numbers, at most {@code MAX_SAMPLES}
+     */
+    public List<Long> getSampleLines(DataEntryStatus reason) {
+        return sampleLines.getOrDefault(reason, new ArrayList<>());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(String.format(
+                "%d lines ingested, %d accepted, %d rejected", lineCount, acceptedCount, getRejectedCount()));
+
+        rejectedCounts.forEach((reason, count) -> sb.append(String.format(
+                "\n  %s: %d (lines %s%s)",
+                reason.getDescription(),
+                count,
+                getSampleLines(reason),
+                count > MAX_SAMPLES ? " ..." : "")));
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,147 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves the state and the county of the data rows during an ingest.
+ * <p>
+ * A data file has only a few thousand distinct locations, while looking up {@code UnitedStates}
+ * hashes the names of the state and the county. Each distinct location is looked up only once,
+ * and the result is reused for all later rows having the same location.
+ * <p>
+ * Rows are keyed by the raw bytes of their county and state fields, so no {@code String} is created
+ * for a location which has already been resolved.
+ * <p>
+ * An instance is not thread-safe. Each parsing thread uses its own resolver.
+ */
+public class LocationResolver {
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    private final UnitedStates unitedStates;
+
+    // Open addressing table keyed by the raw bytes of the fields
+    private Location[] table = new Location[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<String, Location> decoded = new HashMap<>();
+
+    /**
+     * Create a resolver looking up the snapshot of {@code UnitedStates.current()} at this point.
+     */
+    public LocationResolver() {
+        this(UnitedStates.current());
+    }
+
+    /**
+     * @param unitedStates population data to look up the locations from
+     */
+    public LocationResolver(UnitedStates unitedStates) {
+        this.unitedStates = unitedStates;
+    }
+
+    /**
+     * Resolve the location of the tokenized row.
+     *
+     * @param row tokenizer holding the row
+     * @param countyIdx index of the county field
+     * @param stateIdx index of the state field
+     * @return resolved location. State and county are {@code null} if not found.
+     */
+    public Location resolve(DataRowTokenizer row, int countyIdx, int stateIdx) {
+        if (row.isEscaped(countyIdx) || row.isEscaped(stateIdx)) {
+            // Raw bytes of an escaped field differ from its value
+            return resolve(row.getString(countyIdx), row.getString(stateIdx));
+        }
+
+        int hash = row.hashField(stateIdx, row.hashField(countyIdx, 1) * 31 + ',');
+        int mask = table.length - 1;
+
+        for (int i = hash & mask; table[i] != null; i = (i + 1) & mask) {
+            Location location = table[i];
+
+            if (location.hash == hash
+                    && row.fieldEquals(countyIdx, location.key, 0, location.countyLength)
+                    && row.fieldEquals(stateIdx, location.key, location.countyLength, location.key.length)) {
+                return location;
+            }
+        }
+
+        byte[] key = new byte[row.getFieldLength(countyIdx) + row.getFieldLength(stateIdx)];
+        int countyLength = row.copyField(countyIdx, key, 0);
+        row.copyField(stateIdx, key, countyLength);
+
+        Location location = lookup(row.getString(countyIdx), row.getString(stateIdx), hash, key, countyLength);
+        insert(location);
+
+        return location;
+    }
+
+    /**
+     * Resolve the location of the decoded county and state.
+     *
+     * @param county county name
+     * @param state state abbreviation or full name
+     * @return resolved location. State and county are {@code null} if not found.
+     */
+    public Location resolve(String county, String state) {
+        return decoded.computeIfAbsent(county + ',' + state, key -> lookup(county, state, 0, null, 0));
+    }
+
+    private Location lookup(String county, String state, int hash, byte[] key, int countyLength) {
+        return new Location(
+                unitedStates.getState(state), unitedStates.getCounty(county, state), hash, key, countyLength);
+    }
+
+    private void insert(Location location) {
+        if ((size + 1) * 2 > table.length) {
+            Location[] old = table;
+            table = new Location[old.length * 2];
+
+            for (Location existing : old) {
+                if (existing != null) {
+                    place(existing);
+                }
+            }
+        }
+
+        place(location);
+        size++;
+    }
+
+    private void place(Location location) {
+        int mask = table.length - 1;
+        int i = location.hash & mask;
+
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = location;
+    }
+
+    /**
+     * Resolved state and county of a row.
+     */
+    public static class Location {
+        private final State state;
+        private final County county;
+
+        private final int hash;
+        private final byte[] key;
+        private final int countyLength;
+
+        private Location(State state, County county, int hash, byte[] key, int countyLength) {
+            this.state = state;
+            this.county = county;
+            this.hash = hash;
+            this.key = key;
+            this.countyLength = countyLength;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public County getCounty() {
+            return county;
+        }
+    }
+}
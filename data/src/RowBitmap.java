@@ -0,0 +1,465 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Compressed bitmap of the rows, following the layout of Roaring bitmaps.
+ * <p>
+ * The rows are split into chunks of 65536 by the upper 16 bits.
+ * Each chunk having any row keeps the lower 16 bits in a container:
+ * a sorted array while the chunk has at most 4096 rows, otherwise a bitmap of 65536 bits.
+ * Sparse bitmaps only take 2 bytes per row, and dense ones at most 8KB per chunk.
+ * <p>
+ * The results of {@code and()} and {@code or()} are new bitmaps, so the operands are never modified.
+ */
+public class RowBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = (1 << 16) / Long.SIZE;
+
+    private static final RowBitmap EMPTY = new RowBitmap();
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    /**
+     * Get an empty bitmap, which must not be modified.
+     *
+     * @return empty bitmap
+     */
+    public static RowBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Create the bitmap of {@code rows}.
+     *
+     * @param rows rows in increasing order
+     * @return bitmap of the rows
+     */
+    public static RowBitmap of(int[] rows) {
+        RowBitmap bitmap = new RowBitmap();
+        for (int row : rows) {
+            bitmap.add(row);
+        }
+
+        return bitmap;
+    }
+
+    /**
+     * Create the union of all {@code bitmaps} in a single pass, which is cheaper than chaining {@code or()}.
+     *
+     * @param bitmaps bitmaps to be merged
+     * @return union of the bitmaps
+     */
+    public static RowBitmap union(Collection<RowBitmap> bitmaps) {
+        if (bitmaps.isEmpty()) {
+            return EMPTY;
+        }
+        if (bitmaps.size() == 1) {
+            return bitmaps.iterator().next();
+        }
+
+        BitSet rows = new BitSet();
+        for (RowBitmap bitmap : bitmaps) {
+            for (int i = 0; i < bitmap.size; i++) {
+                bitmap.containers[i].forEach(bitmap.keys[i] << 16, rows);
+            }
+        }
+
+        return of(rows.stream().toArray());
+    }
+
+    /**
+     * Add {@code row} to this bitmap. Rows must be added in increasing order.
+     *
+     * @param row row to be added, not less than any row added before
+     */
+    void add(int row) {
+        char key = (char) (row >>> 16);
+
+        if (size == 0 || keys[size - 1] != key) {
+            if (size == keys.length) {
+                int capacity = Math.max(size * 2, 4);
+                keys = Arrays.copyOf(keys, capacity);
+                containers = Arrays.copyOf(containers, capacity);
+            }
+
+            keys[size] = key;
+            containers[size] = new ArrayContainer(new char[4], 0);
+            size++;
+        }
+
+        containers[size - 1] = containers[size - 1].add((char) row);
+    }
+
+    private void append(char key, Container container) {
+        if (container.cardinality() == 0) {
+            return;
+        }
+
+        if (size == keys.length) {
+            int capacity = Math.max(size * 2, 4);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+
+        keys[size] = key;
+        containers[size] = container;
+        size++;
+    }
+
+    /**
+     * Intersect this bitmap with {@code other}.
+     *
+     * @param other bitmap to be intersected
+     * @return rows in both of the bitmaps
+     */
+    public RowBitmap and(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Merge this bitmap with {@code other}.
+     *
+     * @param other bitmap to be merged
+     * @return rows in any of the bitmaps
+     */
+    public RowBitmap or(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Check if {@code row} is in this bitmap.
+     *
+     * @param row row to be checked
+     * @return if {@code row} is in this bitmap
+     */
+    public boolean contains(int row) {
+        int i = Arrays.binarySearch(keys, 0, size, (char) (row >>> 16));
+        return i >= 0 && containers[i].contains((char) row);
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Convert this bitmap to a selection vector.
+     *
+     * @return sorted array of the rows
+     */
+    public int[] toArray() {
+        int[] rows = new int[cardinality()];
+
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            offset = containers[i].fill(rows, offset, keys[i] << 16);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Lower 16 bits of the rows in a chunk.
+     */
+    private abstract static class Container {
+        abstract int cardinality();
+
+        /**
+         * Add {@code value}, not less than any value added before.
+         *
+         * @return this container, or the converted one if this container became too large
+         */
+        abstract Container add(char value);
+
+        abstract boolean contains(char value);
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+
+        /**
+         * Write the rows to {@code rows} from {@code offset}, adding {@code base} to the values.
+         *
+         * @return offset after the last written row
+         */
+        abstract int fill(int[] rows, int offset, int base);
+
+        abstract void forEach(int base, BitSet rows);
+    }
+
+    private static class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        private ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            if (cardinality > 0 && values[cardinality - 1] == value) {
+                return this;
+            }
+
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_MAX));
+            }
+            values[cardinality++] = value;
+
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+
+            ArrayContainer array = (ArrayContainer) other;
+            if (cardinality + array.cardinality > ARRAY_MAX) {
+                return toBitmap().or(array);
+            }
+
+            // Merge the sorted values
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                char value;
+                if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    value = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    value = array.values[j++];
+                } else {
+                    value = values[i++];
+                    j++;
+                }
+                result[count++] = value;
+            }
+
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        @Override
+        int fill(int[] rows, int offset, int base) {
+            for (int i = 0; i < cardinality; i++) {
+                rows[offset++] = base | values[i];
+            }
+
+            return offset;
+        }
+
+        @Override
+        void forEach(int base, BitSet rows) {
+            for (int i = 0; i < cardinality; i++) {
+                rows.set(base | values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer(new long[BITMAP_WORDS], 0);
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.set(values[i]);
+            }
+
+            return bitmap;
+        }
+    }
+
+    private static class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        private void set(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before | (1L << value);
+            if (before != words[value >>> 6]) {
+                cardinality++;
+            }
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            set(value);
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & ((BitmapContainer) other).words[i];
+                count += Long.bitCount(result[i]);
+            }
+
+            BitmapContainer bitmap = new BitmapContainer(result, count);
+            return count > ARRAY_MAX ? bitmap : bitmap.toArray();
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    result.set(array.values[i]);
+                }
+            } else {
+                int count = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result.words[i] |= ((BitmapContainer) other).words[i];
+                    count += Long.bitCount(result.words[i]);
+                }
+                result.cardinality = count;
+            }
+
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        int fill(int[] rows, int offset, int base) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    rows[offset++] = base | (i << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+
+            return offset;
+        }
+
+        @Override
+        void forEach(int base, BitSet rows) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    rows.set(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+
+            return new ArrayContainer(values, count);
+        }
+    }
+}
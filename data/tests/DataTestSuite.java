@@ -19,4 +19,22 @@ public class DataTestSuite {
   class TestC extends TestDataHolder {
 
   }
+
+  @Nested
+  @DisplayName("TestRowBitmap")
+  class TestD extends TestRowBitmap {
+
+  }
+
+  @Nested
+  @DisplayName("TestFilterResultCache")
+  class TestE extends TestFilterResultCache {
+
+  }
+
+  @Nested
+  @DisplayName("TestColumnStatistics")
+  class TestF extends TestColumnStatistics {
+
+  }
 }
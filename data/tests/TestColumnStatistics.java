@@ -0,0 +1,47 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestColumnStatistics {
+    @Test
+    void test_uniform() {
+        double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = values.length - 1 - i;
+        }
+
+        ColumnStatistics statistics = ColumnStatistics.of(values);
+        assertEquals(0, statistics.getMin());
+        assertEquals(999, statistics.getMax());
+        assertEquals(1000, statistics.getDistinctCount());
+
+        assertEquals(0.25, statistics.selectivity(FilterComparator.LT, 250), 0.01);
+        assertEquals(0.75, statistics.selectivity(FilterComparator.GTE, 250), 0.01);
+        assertEquals(0.001, statistics.selectivity(FilterComparator.EQ, 500), 0.0001);
+        assertEquals(0, statistics.selectivity(FilterComparator.GT, 999));
+        assertEquals(0, statistics.selectivity(FilterComparator.EQ, 5000));
+        assertEquals(1, statistics.selectivity(FilterComparator.LTE, 5000));
+    }
+
+    @Test
+    void test_skewed() {
+        // 90% zeros
+        double[] values = new double[1000];
+        for (int i = 900; i < values.length; i++) {
+            values[i] = i;
+        }
+
+        ColumnStatistics statistics = ColumnStatistics.of(values);
+        assertEquals(101, statistics.getDistinctCount());
+        assertEquals(0.9, statistics.selectivity(FilterComparator.EQ, 0), 0.05);
+        assertEquals(0.1, statistics.selectivity(FilterComparator.GT, 0), 0.05);
+        assertEquals(0.05, statistics.selectivity(FilterComparator.GTE, 950), 0.03);
+    }
+
+    @Test
+    void test_empty() {
+        ColumnStatistics statistics = ColumnStatistics.of(new double[] {Double.NaN});
+        assertEquals(0, statistics.getDistinctCount());
+        assertEquals(0, statistics.selectivity(FilterComparator.GTE, 0));
+    }
+}
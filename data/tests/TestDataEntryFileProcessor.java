@@ -253,4 +253,99 @@ public class TestDataEntryFileProcessor {
       e.printStackTrace();
     }
   }
+
+  /**
+   * tokenized entry should be parsed the same as the splitted entry, including quoted fields
+   */
+  @Test
+  void test_DataEntryFileProcessor_011_process_tokenized() {
+    LocationResolver resolver = new LocationResolver();
+    DataRowTokenizer tokenizer = new DataRowTokenizer();
+    IngestRejectionReport report = new IngestRejectionReport();
+    LocalDate today = LocalDate.of(2020, Month.MAY, 1);
+
+    byte[] line = "2020-01-28,\"Dane\",WI,1,0".getBytes();
+    tokenizer.reset(java.nio.ByteBuffer.wrap(line), 0, line.length);
+
+    DataEntry e = DataEntryFileProcessor.parse(tokenizer, resolver, today, report, 1);
+    assertNotNull(e);
+    assertEquals(LocalDate.of(2020, Month.JANUARY, 28), e.getDate());
+    assertEquals("Dane", e.getCounty().getName());
+    assertEquals("WI", e.getState().getAbbr());
+    assertEquals(1, e.getConfirmed());
+    assertEquals(0, e.getFatal());
+
+    line = "2020-01-28,Dane,WI,1,A".getBytes();
+    tokenizer.reset(java.nio.ByteBuffer.wrap(line), 0, line.length);
+    assertNull(DataEntryFileProcessor.parse(tokenizer, resolver, today, report, 2));
+    assertEquals(1, report.getRejectedCount(DataEntryStatus.INVALID_FATAL));
+    assertEquals(1, report.getAcceptedCount());
+  }
+
+  /**
+   * resolver should return the same location for the same fields, and resolve them like UnitedStates
+   */
+  @Test
+  void test_DataEntryFileProcessor_012_resolve_location() {
+    LocationResolver resolver = new LocationResolver();
+    DataRowTokenizer tokenizer = new DataRowTokenizer();
+
+    byte[] line = "2020-01-28,Dane,WI,1,0,2020-01-29,\"Dane\",wi,2,0".getBytes();
+    tokenizer.reset(java.nio.ByteBuffer.wrap(line), 0, line.length);
+
+    LocationResolver.Location dane = resolver.resolve(tokenizer, 1, 2);
+    assertSame(UnitedStates.current().getCounty("Dane", "WI"), dane.getCounty());
+    assertSame(UnitedStates.current().getState("WI"), dane.getState());
+    assertSame(dane, resolver.resolve(tokenizer, 1, 2));
+
+    // Different bytes are resolved separately, but to the same county
+    LocationResolver.Location lower = resolver.resolve(tokenizer, 6, 7);
+    assertNotSame(dane, lower);
+    assertSame(dane.getCounty(), lower.getCounty());
+
+    // Unknown location
+    LocationResolver.Location unknown = resolver.resolve(tokenizer, 1, 1);
+    assertNull(unknown.getCounty());
+    assertNull(unknown.getState());
+
+    // Enough locations to grow the table
+    for (int i = 0; i < 10000; i++) {
+      line = String.format("2020-01-28,County %d,WI,1,0", i).getBytes();
+      tokenizer.reset(java.nio.ByteBuffer.wrap(line), 0, line.length);
+      assertNull(resolver.resolve(tokenizer, 1, 2).getCounty());
+    }
+
+    line = "2020-01-28,Dane,WI,1,0".getBytes();
+    tokenizer.reset(java.nio.ByteBuffer.wrap(line), 0, line.length);
+    assertSame(dane, resolver.resolve(tokenizer, 1, 2));
+    assertSame(resolver.resolve("Dane", "WI"), resolver.resolve("Dane", "WI"));
+    assertSame(dane.getCounty(), resolver.resolve("Dane", "WI").getCounty());
+  }
+
+  /**
+   * truncated lines should be rejected as malformed, the same as the splitted entry missing the fatal count
+   */
+  @Test
+  void test_DataEntryFileProcessor_013_reject_truncated() {
+    LocationResolver resolver = new LocationResolver();
+    DataRowTokenizer tokenizer = new DataRowTokenizer();
+    IngestRejectionReport report = new IngestRejectionReport();
+    LocalDate today = LocalDate.of(2020, Month.MAY, 1);
+
+    String[] truncated = {"2020-04-18,Dane,WI", "2020-04-18,Dane,WI,5", "2020-04-18,Dane,WI,5,", "2020-04-18,Dane,WI,,"};
+    for (int i = 0; i < truncated.length; i++) {
+      byte[] line = truncated[i].getBytes();
+      tokenizer.reset(java.nio.ByteBuffer.wrap(line), 0, line.length);
+      assertNull(DataEntryFileProcessor.parse(tokenizer, resolver, today, report, i + 1));
+    }
+    assertEquals(truncated.length, report.getRejectedCount(DataEntryStatus.MALFORMED_LINE));
+
+    // Empty confirmed count followed by the fatal count is still accepted
+    byte[] line = "2020-04-18,Dane,WI,,0".getBytes();
+    tokenizer.reset(java.nio.ByteBuffer.wrap(line), 0, line.length);
+    DataEntry e = DataEntryFileProcessor.parse(tokenizer, resolver, today, report, truncated.length + 1);
+    assertNotNull(e);
+    assertEquals(0, e.getConfirmed());
+    assertEquals(truncated.length, report.getRejectedCount(DataEntryStatus.MALFORMED_LINE));
+  }
 }
@@ -2,9 +2,17 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,16 +30,16 @@ public class TestDataHolder {
 
         PopulationDataParser.loadUsPopFile("res/pops.csv", new StateNameConverter("res/states.csv"));
 
-        d1 = new DataEntry(LocalDate.of(2020, Month.APRIL, 18), UnitedStates.current.getState("WI"),
-                UnitedStates.current.getCounty("Dane"), 100, 10);
-        d2 = new DataEntry(LocalDate.of(2020, Month.APRIL, 19), UnitedStates.current.getState("WI"),
-                UnitedStates.current.getCounty("Dane"), 100, 10);
-        d3 = new DataEntry(LocalDate.of(2020, Month.APRIL, 20), UnitedStates.current.getState("WI"),
-                UnitedStates.current.getCounty("Dane"), 100, 10);
-        d4 = new DataEntry(LocalDate.of(2020, Month.APRIL, 19), UnitedStates.current.getState("WA"),
-                UnitedStates.current.getCounty("King"), 300, 40);
-        d5 = new DataEntry(LocalDate.of(2020, Month.APRIL, 20), UnitedStates.current.getState("WA"),
-                UnitedStates.current.getCounty("King"), 300, 40);
+        d1 = new DataEntry(LocalDate.of(2020, Month.APRIL, 18), UnitedStates.current().getState("WI"),
+                UnitedStates.current().getCounty("Dane"), 100, 10);
+        d2 = new DataEntry(LocalDate.of(2020, Month.APRIL, 19), UnitedStates.current().getState("WI"),
+                UnitedStates.current().getCounty("Dane"), 100, 10);
+        d3 = new DataEntry(LocalDate.of(2020, Month.APRIL, 20), UnitedStates.current().getState("WI"),
+                UnitedStates.current().getCounty("Dane"), 100, 10);
+        d4 = new DataEntry(LocalDate.of(2020, Month.APRIL, 19), UnitedStates.current().getState("WA"),
+                UnitedStates.current().getCounty("King"), 300, 40);
+        d5 = new DataEntry(LocalDate.of(2020, Month.APRIL, 20), UnitedStates.current().getState("WA"),
+                UnitedStates.current().getCounty("King"), 300, 40);
     }
 
     @BeforeEach
@@ -73,4 +81,566 @@ public class TestDataHolder {
 
         assertEquals(1, holder.getDataCount());
     }
+
+    private int countFiltered(FilterParameter parameter, FilterComparator comparator, String val)
+            throws FilterSyntaxError {
+        FilterCondition condition = new FilterCondition();
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(parameter, comparator, val));
+            }
+        });
+
+        return main.filterData(condition).getDataCount();
+    }
+
+    @Test
+    void test_filter_comparators() throws FilterSyntaxError {
+        assertEquals(2, countFiltered(FilterParameter.CONFIRMED, FilterComparator.GT, "100"));
+        assertEquals(5, countFiltered(FilterParameter.CONFIRMED, FilterComparator.GTE, "100"));
+        assertEquals(3, countFiltered(FilterParameter.CONFIRMED, FilterComparator.LT, "300"));
+        assertEquals(5, countFiltered(FilterParameter.CONFIRMED, FilterComparator.LTE, "300"));
+        assertEquals(2, countFiltered(FilterParameter.CONFIRMED, FilterComparator.EQ, "300"));
+        assertEquals(3, countFiltered(FilterParameter.FATAL, FilterComparator.EQ, "10"));
+
+        assertEquals(3, countFiltered(FilterParameter.DEATH_RATE, FilterComparator.EQ, "10"));
+        assertEquals(2, countFiltered(FilterParameter.DEATH_RATE, FilterComparator.GT, "10"));
+
+        assertEquals(2, countFiltered(FilterParameter.DATE, FilterComparator.GT, "2020-04-19"));
+        assertEquals(4, countFiltered(FilterParameter.DATE, FilterComparator.GTE, "2020-04-19"));
+        assertEquals(1, countFiltered(FilterParameter.DATE, FilterComparator.LT, "2020-04-19"));
+        assertEquals(3, countFiltered(FilterParameter.DATE, FilterComparator.LTE, "2020-04-19"));
+        assertEquals(2, countFiltered(FilterParameter.DATE, FilterComparator.EQ, "2020-04-19"));
+
+        // Entries without the county never match the coordinates
+        assertEquals(0, countFiltered(FilterParameter.LATITUDE, FilterComparator.GTE, "-90"));
+        assertEquals(0, countFiltered(FilterParameter.LONGITUDE, FilterComparator.LTE, "180"));
+    }
+
+    @Test
+    void test_filter_plan() throws Exception {
+        FilterCondition condition = new FilterCondition();
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.STATE, FilterComparator.EQ, "WI"));
+                add(new FilterConditionEntity(FilterParameter.DATE, FilterComparator.LT, "2020-04-19"));
+            }
+        });
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.STATE, FilterComparator.EQ, "XX"));
+            }
+        });
+
+        FilterPlan plan = FilterPlan.compile(condition);
+        assertSame(UnitedStates.current(), plan.getUnitedStates());
+        assertTrue(plan.test(d1));
+        assertFalse(plan.test(d2));
+        assertFalse(plan.test(d4));
+
+        // Compiled plan keeps its snapshot after the population data is reloaded
+        UnitedStates pinned = plan.getUnitedStates();
+        PopulationDataParser.loadUsPopFile("res/pops.csv", new StateNameConverter("res/states.csv"));
+        assertNotSame(UnitedStates.current(), plan.getUnitedStates());
+        assertSame(pinned, plan.getUnitedStates());
+        assertTrue(plan.test(d1));
+
+        assertTrue(FilterPlan.compile(new FilterCondition()).test(d4));
+    }
+
+    @Test
+    void test_filter_indexed() throws FilterSyntaxError {
+        assertEquals(2, countFiltered(FilterParameter.STATE, FilterComparator.EQ, "Washington"));
+        assertEquals(3, countFiltered(FilterParameter.STATE, FilterComparator.GT, "WA"));
+        assertEquals(0, countFiltered(FilterParameter.COUNTY, FilterComparator.EQ, "King"));
+        assertEquals(2, countFiltered(FilterParameter.DATE, FilterComparator.EQ, "2020-04-20"));
+        assertEquals(0, countFiltered(FilterParameter.DATE, FilterComparator.EQ, "2020-01-01"));
+
+        // Indexed AND group merged with an indexed OR group and a residual one
+        FilterCondition condition = new FilterCondition();
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.STATE, FilterComparator.EQ, "WI"));
+                add(new FilterConditionEntity(FilterParameter.DATE, FilterComparator.EQ, "2020-04-19"));
+            }
+        });
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.DATE, FilterComparator.EQ, "2020-04-20"));
+            }
+        });
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.FATAL, FilterComparator.GT, "10"));
+            }
+        });
+
+        DataColumns columns = DataColumns.of(List.of(d1, d2, d3, d4, d5).stream());
+        assertArrayEquals(new int[] {1, 2, 3, 4}, FilterPlan.compile(condition).select(columns));
+    }
+
+    @Test
+    void test_filter_date_range() throws FilterSyntaxError {
+        FilterCondition condition = new FilterCondition();
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.DATE, FilterComparator.GTE, "2020-04-19"));
+                add(new FilterConditionEntity(FilterParameter.CONFIRMED, FilterComparator.LT, "300"));
+                add(new FilterConditionEntity(FilterParameter.DATE, FilterComparator.LTE, "2020-04-19"));
+            }
+        });
+        assertEquals(1, main.filterData(condition).getDataCount());
+
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.DATE, FilterComparator.GT, "2020-04-19"));
+                add(new FilterConditionEntity(FilterParameter.DATE, FilterComparator.LT, "2020-04-19"));
+            }
+        });
+        assertEquals(1, main.filterData(condition).getDataCount());
+
+        DataColumns columns = DataColumns.of(List.of(d5, d1, d4, d2, d3).stream());
+        assertEquals(5, columns.rowsOfEpochDays(d1.getEpochDay(), d3.getEpochDay()).cardinality());
+        assertArrayEquals(new int[] {0, 4}, columns.rowsOfEpochDays(d3.getEpochDay(), Integer.MAX_VALUE).toArray());
+        assertArrayEquals(new int[] {1, 2, 3},
+                columns.rowsOfEpochDays(Integer.MIN_VALUE, d2.getEpochDay()).toArray());
+        assertTrue(columns.rowsOfEpochDays(d3.getEpochDay(), d1.getEpochDay()).isEmpty());
+    }
+
+    @Test
+    void test_filter_reorder() throws FilterSyntaxError {
+        FilterCondition condition = FilterQueryParser.parse(
+                "%confirmed% >= 0 & %fatal% = 40 & %date% > 2020-04-18 | %state% = WI & %confirmed% = 300");
+
+        DataStatistics statistics = main.getStatistics();
+        assertEquals(5, statistics.getRowCount());
+        assertEquals(2, statistics.getStateCount());
+        assertEquals(100, statistics.getColumn(FilterParameter.CONFIRMED).getMin());
+
+        FilterPlan plan = FilterPlan.compile(condition);
+        FilterPlan reordered = plan.reorder(statistics);
+
+        // The term matching every row goes last, and the group matching nothing goes last
+        List<List<FilterConditionEntity>> order = reordered.getEvaluationOrder().getConditions();
+        assertEquals(new FilterConditionEntity(FilterParameter.FATAL, FilterComparator.EQ, "40"), order.get(0).get(0));
+        assertEquals(new FilterConditionEntity(FilterParameter.CONFIRMED, FilterComparator.GTE, "0"),
+                order.get(0).get(2));
+        assertEquals(condition.normalized(), reordered.getEvaluationOrder().normalized());
+        assertEquals(condition, reordered.getCondition());
+
+        for (DataEntry entry : List.of(d1, d2, d3, d4, d5)) {
+            assertEquals(plan.test(entry), reordered.test(entry));
+        }
+        assertEquals(2, main.filterData(condition).getDataCount());
+    }
+
+    @Test
+    void test_filter_parallel() throws Exception {
+        List<DataEntry> entries = new ArrayList<>();
+        for (int i = 0; i < FilterPlan.PARALLEL_THRESHOLD; i++) {
+            DataEntry entry = i % 3 == 0 ? d4 : d1;
+            entries.add(new DataEntry(entry.getDate(), entry.getState(), entry.getCounty(), i % 1000 + 7, i % 7));
+        }
+        DataColumns columns = DataColumns.of(entries.stream());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String query : List.of("%confirmed% > 500 & %fatal% < 3", "%state% = WA & %confirmed% < 10",
+                    "%fatal% = 0 | %state% = WI & %confirmed% >= 990", "%confirmed% > 1000")) {
+                FilterPlan plan = FilterPlan.compile(FilterQueryParser.parse(query));
+
+                int[] sequential = plan.select(columns);
+                assertEquals(entries.stream().filter(plan).count(), sequential.length);
+                assertArrayEquals(sequential, plan.select(columns, pool));
+                assertArrayEquals(sequential, plan.select(columns, ForkJoinPool.commonPool()));
+            }
+
+            // Filters keep working while the pool is replaced
+            DataHolder holder = new DataHolder(entries.stream());
+            FilterCondition condition = FilterQueryParser.parse("%confirmed% > 500 & %fatal% < 3");
+            int expected = holder.filterData(condition).getDataCount();
+            for (int threads : new int[] {3, 1, 2, 0}) {
+                DataHolder.setFilterThreads(threads);
+                assertEquals(expected, holder.filterData(condition).getDataCount());
+            }
+        } finally {
+            DataHolder.setFilterThreads(0);
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void test_columns() throws Exception {
+        List<DataEntry> entries = List.of(d1, d2, d3, d4, d5);
+        DataColumns columns = DataColumns.of(entries.stream());
+        assertEquals(5, columns.size());
+
+        for (int row = 0; row < entries.size(); row++) {
+            DataEntry expected = entries.get(row);
+            DataEntry created = columns.entry(row);
+
+            assertEquals(expected.getDate(), created.getDate());
+            assertSame(expected.getState(), created.getState());
+            assertSame(expected.getCounty(), created.getCounty());
+            assertEquals(expected.getConfirmed(), created.getConfirmed());
+            assertEquals(expected.getFatal(), created.getFatal());
+            assertEquals(expected.getConfirmedPer100K(), columns.getConfirmedPer100K(row));
+            assertEquals(expected.getFatalPer100K(), columns.getFatalPer100K(row));
+            assertEquals(expected.getDeathRatePercent(), columns.getDeathRatePercent(row));
+            assertEquals(expected.toTableEntry(), created.toTableEntry());
+        }
+
+        // Entries of the same row are equal, so the rows shown in the table can be found
+        List<DataEntry> view = columns.entries();
+        assertEquals(view.get(3), view.get(3));
+        assertEquals(view.get(3).hashCode(), columns.entry(3).hashCode());
+        assertNotEquals(view.get(3), view.get(4));
+        assertEquals(3, view.indexOf(view.get(3)));
+        assertTrue(view.contains(columns.entry(4)));
+        assertFalse(view.contains(d4));
+        assertFalse(view.contains(DataColumns.of(entries.stream()).entry(3)));
+
+        FilterCondition condition = new FilterCondition();
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.STATE, FilterComparator.EQ, "WA"));
+            }
+        });
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.CONFIRMED, FilterComparator.EQ, "100"));
+                add(new FilterConditionEntity(FilterParameter.DATE, FilterComparator.GT, "2020-04-19"));
+            }
+        });
+
+        int[] selection = FilterPlan.compile(condition).select(columns);
+        assertArrayEquals(new int[] {2, 3, 4}, selection);
+
+        DataColumns selected = columns.select(selection);
+        assertEquals(3, selected.size());
+        assertSame(d3.getState(), selected.getState(0));
+        assertEquals(d5.getEpochDay(), selected.getEpochDay(2));
+
+        assertArrayEquals(columns.allRows(), FilterPlan.compile(new FilterCondition()).select(columns));
+        assertEquals(main.filterData(condition).summaryString().toString(),
+                new DataHolder(entries.stream().filter(FilterPlan.compile(condition)), condition)
+                        .summaryString().toString());
+    }
+
+    @Test
+    void test_filter_zip() throws Exception {
+        DataHolder parsed = DataHolder.parseFile("res/data.csv");
+
+        FilterCondition condition = new FilterCondition();
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.ZIP_CODE, FilterComparator.EQ, "98155"));
+            }
+        });
+        assertEquals(3, parsed.filterData(condition).getDataCount());
+
+        condition = new FilterCondition();
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.ZIP_CODE, FilterComparator.EQ, "98580"));
+            }
+        });
+        assertEquals(0, parsed.filterData(condition).getDataCount());
+
+        // Rows resolved against the population data before reloaded
+        PopulationDataParser.loadUsPopFile("res/pops.csv", new StateNameConverter("res/states.csv"));
+        assertEquals(3, parsed.filterData(FilterQueryParser.parse("%zip% = 98155")).getDataCount());
+    }
+
+    @Test
+    void test_filter_within() throws Exception {
+        DataHolder parsed = DataHolder.parseFile("res/data.csv");
+
+        // King only, Dane is about 100 km away in the test population data
+        FilterCondition condition = new FilterCondition();
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.WITHIN, FilterComparator.EQ, "10@47.5,-122.1"));
+            }
+        });
+        assertEquals(3, parsed.filterData(condition).getDataCount());
+
+        condition = new FilterCondition();
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.WITHIN, FilterComparator.EQ, "150@47.5,-122.1"));
+            }
+        });
+        assertEquals(6, parsed.filterData(condition).getDataCount());
+
+        // Rows resolved against the population data before reloaded
+        PopulationDataParser.loadUsPopFile("res/pops.csv", new StateNameConverter("res/states.csv"));
+        assertEquals(3, parsed.filterData(FilterQueryParser.parse("%within% = 10@47.5,-122.1")).getDataCount());
+
+        assertThrows(FilterSyntaxError.class,
+                () -> new FilterConditionEntity(FilterParameter.WITHIN, FilterComparator.GT, "10@47.5,-122.1"));
+    }
+
+    @Test
+    void test_population_distinct_counties() throws Exception {
+        DataHolder parsed = DataHolder.parseFile("res/data.csv");
+
+        // Dane and King, each counted once. Both rows of Pierce are invalid.
+        assertEquals(30445 + 5093668, parsed.getPopulation());
+
+        FilterCondition condition = new FilterCondition();
+        condition.pushConditionsAND(new ArrayList<>() {
+            {
+                add(new FilterConditionEntity(FilterParameter.STATE, FilterComparator.EQ, "WA"));
+            }
+        });
+        assertEquals(5093668, parsed.filterData(condition).getPopulation());
+    }
+
+    @Test
+    void test_parse_file_parallel() throws Exception {
+        DataHolder sequential = DataHolder.parseFile("res/data.csv");
+        DataHolder parallel = DataHolder.parseFileParallel("res/data.csv");
+
+        assertEquals(7, sequential.getDataCount());
+        assertEquals(sequential.getDataCount(), parallel.getDataCount());
+        assertEquals(
+                sequential.summaryString().toString(),
+                parallel.summaryString().toString());
+    }
+
+    @Test
+    void test_parse_file_rejection_report() throws Exception {
+        IngestRejectionReport sequential = new IngestRejectionReport();
+        DataHolder.parseFile("res/data.csv", sequential);
+        IngestRejectionReport parallel = new IngestRejectionReport();
+        DataHolder.parseFileParallel("res/data.csv", parallel);
+
+        for (IngestRejectionReport report : new IngestRejectionReport[] {sequential, parallel}) {
+            assertEquals(10, report.getLineCount());
+            assertEquals(7, report.getAcceptedCount());
+            assertEquals(3, report.getRejectedCount());
+            assertEquals(List.of(6L), report.getSampleLines(DataEntryStatus.INVALID_CONFIRMED));
+            assertEquals(List.of(7L), report.getSampleLines(DataEntryStatus.INVALID_STATE));
+            assertEquals(List.of(10L), report.getSampleLines(DataEntryStatus.INVALID_FATAL));
+            assertEquals(0, report.getRejectedCount(DataEntryStatus.INVALID_DATE));
+        }
+    }
+
+    @Test
+    void test_load_file_snapshot() throws Exception {
+        Path dir = Files.createTempDirectory("snapshot");
+        String path = dir.resolve("data.csv").toString();
+        Files.copy(Paths.get("res/data.csv"), Paths.get(path));
+
+        try {
+            IngestRejectionReport coldReport = new IngestRejectionReport();
+            DataHolder cold = DataHolder.loadFile(path, coldReport);
+            assertTrue(Files.exists(DataSnapshotCache.snapshotPath(path)));
+
+            IngestRejectionReport warmReport = new IngestRejectionReport();
+            DataHolder warm = DataHolder.loadFile(path, warmReport);
+
+            assertEquals(cold.summaryString().toString(), warm.summaryString().toString());
+            assertEquals(coldReport.getLineCount(), warmReport.getLineCount());
+            assertEquals(coldReport.getRejectedCount(), warmReport.getRejectedCount());
+
+            // Outdated snapshot should not be used
+            Files.writeString(Paths.get(path), "2020-04-18,Dane,WI,100,10\n");
+            assertEquals(1, DataHolder.loadFile(path, new IngestRejectionReport()).getDataCount());
+        } finally {
+            DataSnapshotCache.invalidate(path);
+            Files.deleteIfExists(Paths.get(path));
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void test_load_file_snapshot_future_date() throws Exception {
+        Path dir = Files.createTempDirectory("snapshot");
+        String path = dir.resolve("data.csv").toString();
+        LocalDate today = LocalDate.now();
+        Files.writeString(Paths.get(path),
+                today + ",Dane,WI,100,10\n" + today.plusDays(1) + ",Dane,WI,200,20\n");
+
+        try {
+            IngestRejectionReport report = new IngestRejectionReport();
+            assertEquals(1, DataHolder.loadFile(path, report).getDataCount());
+            assertEquals(1, report.getRejectedCount(DataEntryStatus.INVALID_DATE));
+
+            DataSnapshotCache.SnapshotKey key = DataSnapshotCache.key(path);
+            assertEquals(Files.size(Paths.get(path)), key.getSize());
+            assertNotNull(DataSnapshotCache.load(path, key, today, new IngestRejectionReport()));
+
+            // The line rejected for the date may be valid tomorrow
+            assertNull(DataSnapshotCache.load(path, key, today.plusDays(1), new IngestRejectionReport()));
+        } finally {
+            DataSnapshotCache.invalidate(path);
+            Files.deleteIfExists(Paths.get(path));
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void test_append_entries() throws FilterSyntaxError {
+        DataHolder holder = new DataHolder(new ArrayList<DataEntry>() {{
+            add(d1);
+            add(d2);
+        }}.stream());
+
+        FilterCondition condition = new FilterCondition();
+        condition.pushConditionsAND(new ArrayList<>() {{
+            add(new FilterConditionEntity(FilterParameter.STATE, FilterComparator.EQ, "WI"));
+        }});
+        DataHolder filtered = holder.filterData(condition);
+
+        List<DataEntry> appended = List.of(d3, d4, d5);
+        assertEquals(3, holder.appendEntries(appended));
+        assertEquals(1, filtered.appendEntries(appended));
+
+        assertEquals(main.summaryString().toString(), holder.summaryString().toString());
+        assertEquals(main.getPopulation(), holder.getPopulation());
+        assertEquals(main.filterData(condition).summaryString().toString(), filtered.summaryString().toString());
+    }
+
+    @Test
+    void test_tail_reader() throws Exception {
+        Path path = Files.createTempFile("data", ".csv");
+
+        try {
+            Files.writeString(path, "2020-04-18,Dane,WI,100,10\n2020-04-19,Dane,WI,100,10");
+
+            IngestRejectionReport report = new IngestRejectionReport();
+            DataHolder holder = DataHolder.parseFileParallel(path.toString(), report);
+            DataFileTailReader reader = DataFileTailReader.atEnd(path.toString(), report);
+
+            assertEquals(0, reader.readAppended().size());
+
+            // Incomplete line is not consumed
+            Files.writeString(path, "\n2020-04-20,Dane,WI,XX,10\n2020-04-19,King,", StandardOpenOption.APPEND);
+            holder.appendEntries(reader.readAppended());
+            assertEquals(2, holder.getDataCount());
+            assertEquals(List.of(3L), report.getSampleLines(DataEntryStatus.INVALID_CONFIRMED));
+
+            Files.writeString(path, "WA,300,40\n2020-04-20,King,WA,300,40\n", StandardOpenOption.APPEND);
+            holder.appendEntries(reader.readAppended());
+            assertEquals(4, holder.getDataCount());
+            assertEquals(5, report.getLineCount());
+            assertEquals(Files.size(path), reader.getOffset());
+
+            // Rewritten file cannot be read incrementally
+            Files.writeString(path, "2020-04-18,Dane,WI,200,10\n2020-04-19,Dane,WI,100,10\n2020-04-20");
+            assertNull(reader.readAppended());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void test_tail_reader_after_load_file() throws Exception {
+        Path dir = Files.createTempDirectory("tail");
+        String path = dir.resolve("data.csv").toString();
+        Files.writeString(Paths.get(path), "2020-04-18,Dane,WI,100,10\n");
+
+        try {
+            IngestRejectionReport report = new IngestRejectionReport();
+            DataHolder holder = DataHolder.loadFile(path, report);
+            assertEquals(Files.size(Paths.get(path)), holder.getLoadedFileSize());
+
+            // Appended after the loading, before the reader is created
+            Files.writeString(Paths.get(path), "2020-04-19,Dane,WI,100,10\n", StandardOpenOption.APPEND);
+            DataFileTailReader reader = new DataFileTailReader(path, holder.getLoadedFileSize(), report);
+            holder.appendEntries(reader.readAppended());
+            assertEquals(2, holder.getDataCount());
+            assertEquals(2, report.getLineCount());
+        } finally {
+            DataSnapshotCache.invalidate(path);
+            Files.deleteIfExists(Paths.get(path));
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void test_daily_report_directory() throws Exception {
+        Path dir = Files.createTempDirectory("daily");
+        for (String name : List.of("03-10-2020.csv", "04-18-2020.csv", "readme.txt")) {
+            Files.copy(Paths.get("res/daily", name), dir.resolve(name));
+        }
+
+        try {
+            DailyReportDirectoryLoader loader = new DailyReportDirectoryLoader(dir.toString());
+            IngestRejectionReport report = new IngestRejectionReport();
+
+            DataHolder holder = new DataHolder(loader.loadAll(report).stream());
+            assertEquals(4, holder.getDataCount());
+            assertEquals(10, report.getLineCount());
+            assertEquals(List.of(8L), report.getSampleLines(DataEntryStatus.INVALID_CONFIRMED));
+            assertEquals(List.of(LocalDate.of(2020, Month.MARCH, 10), LocalDate.of(2020, Month.APRIL, 18)),
+                    holder.sortedListOfDates());
+
+            // Only the new file is parsed
+            Files.writeString(dir.resolve("04-19-2020.csv"),
+                    "Admin2,Province_State,Country_Region,Confirmed,Deaths\nDane,Wisconsin,US,361,19\n");
+            List<DataEntry> appended = loader.readAppended();
+            assertEquals(1, appended.size());
+            assertEquals(UnitedStates.current().getCounty("Dane", "WI"), appended.get(0).getCounty());
+            assertEquals(12, report.getLineCount());
+            assertEquals(0, loader.readAppended().size());
+
+            // Modified file requires a full reload
+            Files.setLastModifiedTime(dir.resolve("03-10-2020.csv"), FileTime.fromMillis(0));
+            assertNull(loader.readAppended());
+            assertEquals(5, loader.loadAll(new IngestRejectionReport()).size());
+
+            // Reloaded population data requires a full reload, resolving against the new snapshot
+            PopulationDataParser.loadUsPopFile("res/pops.csv", new StateNameConverter("res/states.csv"));
+            assertNull(loader.readAppended());
+            List<DataEntry> reloaded = loader.loadAll(new IngestRejectionReport());
+            assertEquals(5, reloaded.size());
+            assertSame(UnitedStates.current().getCounty("Dane", "WI"), reloaded.get(reloaded.size() - 1).getCounty());
+        } finally {
+            for (Path path : Files.list(dir).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    void test_summarize_file() throws Exception {
+        IngestRejectionReport report = new IngestRejectionReport();
+        DailyCaseAggregator aggregator = DataHolder.summarizeFile("res/data.csv", report);
+
+        DataHolder holder = DataHolder.parseFile("res/data.csv");
+
+        assertEquals(holder.getDataCount(), aggregator.getEntryCount());
+        assertEquals(holder.getPopulation(), aggregator.getPopulation());
+        assertEquals(LocalDate.of(2020, Month.APRIL, 18), aggregator.getFirstDate());
+        assertEquals(LocalDate.of(2020, Month.APRIL, 20), aggregator.getLastDate());
+        assertEquals(
+                DailyStatsTableMaker.tableString(holder.getDailyCaseStats()).toString(),
+                DailyStatsTableMaker.tableString(aggregator.toDailyCaseStats()).toString());
+        assertEquals(3, report.getRejectedCount());
+    }
+
+    @Test
+    void test_parse_compressed_file() throws Exception {
+        Path path = Files.createTempFile("data", ".csv.gz");
+
+        try {
+            CompressedFiles.compress("res/data.csv", path.toString());
+
+            IngestRejectionReport report = new IngestRejectionReport();
+            IngestRejectionReport reportParallel = new IngestRejectionReport();
+            DataHolder expected = DataHolder.parseFile("res/data.csv");
+
+            assertEquals(expected.summaryString().toString(),
+                    DataHolder.parseFile(path.toString(), report).summaryString().toString());
+            assertEquals(expected.summaryString().toString(),
+                    DataHolder.parseFileParallel(path.toString(), reportParallel).summaryString().toString());
+            assertEquals(report.toString(), reportParallel.toString());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
 }
@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestFilterResultCache {
+    private static DataEntry wi;
+    private static DataEntry wa;
+
+    @BeforeAll
+    static void prepare() throws Exception {
+        PopulationDataParser.loadUsPopFile("res/pops.csv", new StateNameConverter("res/states.csv"));
+
+        wi = new DataEntry(LocalDate.of(2020, Month.APRIL, 18), UnitedStates.current().getState("WI"),
+                null, 100, 10);
+        wa = new DataEntry(LocalDate.of(2020, Month.APRIL, 18), UnitedStates.current().getState("WA"),
+                null, 300, 40);
+    }
+
+    @Test
+    void test_hit_and_miss() throws FilterSyntaxError {
+        DataHolder base = new DataHolder(Stream.of(wi, wa, wi));
+        FilterResultCache cache = new FilterResultCache(2, 100);
+
+        DataHolder filtered = cache.filterData(base, FilterQueryParser.parse("%state% = WI & %fatal% > 5"));
+        assertEquals(2, filtered.getDataCount());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // Same terms in a different order with a duplicate
+        assertSame(filtered, cache.filterData(base,
+                FilterQueryParser.parse("%fatal% > 5 & %state% = WI & %fatal% > 5")));
+        assertEquals(1, cache.getHitCount());
+
+        // Least recently used result is evicted
+        cache.filterData(base, FilterQueryParser.parse("%state% = WA"));
+        cache.filterData(base, FilterQueryParser.parse("%state% = WI & %fatal% > 5"));
+        cache.filterData(base, FilterQueryParser.parse("%confirmed% > 0"));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getHitCount());
+
+        cache.filterData(base, FilterQueryParser.parse("%state% = WA"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    void test_bounded_by_entries() throws FilterSyntaxError {
+        DataHolder base = new DataHolder(Stream.of(wi, wa, wi));
+        FilterResultCache cache = new FilterResultCache(16, 2);
+
+        cache.filterData(base, FilterQueryParser.parse("%confirmed% > 0"));
+        assertEquals(0, cache.size());
+
+        cache.filterData(base, FilterQueryParser.parse("%state% = WI"));
+        cache.filterData(base, FilterQueryParser.parse("%state% = WA"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void test_refined() throws Exception {
+        DataHolder base = new DataHolder(Stream.of(wi, wa, wi));
+        FilterResultCache cache = new FilterResultCache(16, 100);
+
+        DataHolder previous = cache.filterData(base, FilterQueryParser.parse("%state% = WI"));
+        DataHolder refined = cache.filterData(base,
+                FilterQueryParser.parse("%state% = WI & %confirmed% > 50"), previous);
+        assertEquals(1, cache.getRefineCount());
+        assertEquals(2, refined.getDataCount());
+        assertEquals(FilterQueryParser.parse("%state% = WI & %confirmed% > 50"), refined.getCondition());
+
+        // Loosened bound is filtered from the base data
+        DataHolder loosened = cache.filterData(base, FilterQueryParser.parse("%confirmed% > 0"), refined);
+        assertEquals(1, cache.getRefineCount());
+        assertEquals(3, loosened.getDataCount());
+
+        // Entries appended to the previous data are refined as well
+        base.appendEntries(List.of(wi, wa));
+        previous.appendEntries(List.of(wi, wa));
+        DataHolder appended = cache.filterData(base, FilterQueryParser.parse("%state% = WI & %fatal% >= 10"), previous);
+        assertEquals(2, cache.getRefineCount());
+        assertEquals(3, appended.getDataCount());
+
+        // Population data reloaded since the previous data was filtered
+        PopulationDataParser.loadUsPopFile("res/pops.csv", new StateNameConverter("res/states.csv"));
+        assertFalse(previous.canRefine(FilterQueryParser.parse("%state% = WI & %fatal% > 5")));
+        assertEquals(3, cache.filterData(base, FilterQueryParser.parse("%state% = WI & %fatal% > 5"), previous)
+                .getDataCount());
+        assertEquals(2, cache.getRefineCount());
+    }
+
+    @Test
+    void test_invalidated() throws Exception {
+        DataHolder base = new DataHolder(Stream.of(wi, wa));
+        FilterResultCache cache = new FilterResultCache(16, 100);
+        FilterCondition condition = FilterQueryParser.parse("%state% = WI");
+
+        DataHolder filtered = cache.filterData(base, condition);
+        assertEquals(1, filtered.getDataCount());
+
+        // Appended to the base data
+        base.appendEntries(List.of(wi));
+        DataHolder refiltered = cache.filterData(base, condition);
+        assertNotSame(filtered, refiltered);
+        assertEquals(2, refiltered.getDataCount());
+
+        // Base data replaced
+        assertEquals(0, cache.filterData(new DataHolder(Stream.of(wa)), condition).getDataCount());
+
+        // Population data reloaded
+        DataHolder other = new DataHolder(Stream.of(wa));
+        DataHolder cached = cache.filterData(other, condition);
+        PopulationDataParser.loadUsPopFile("res/pops.csv", new StateNameConverter("res/states.csv"));
+        assertNotSame(cached, cache.filterData(other, condition));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(5, cache.getMissCount());
+    }
+}
@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRowBitmap {
+    /**
+     * Create a bitmap and the expected rows, with a sparse chunk, a dense chunk and an empty chunk.
+     */
+    private static RowBitmap random(Random random, BitSet expected, double denseRatio) {
+        RowBitmap bitmap = new RowBitmap();
+
+        for (int row = 0; row < 65536 * 4; row++) {
+            int chunk = row >>> 16;
+            double ratio = chunk == 1 ? denseRatio : chunk == 2 ? 0 : 0.01;
+
+            if (random.nextDouble() < ratio) {
+                bitmap.add(row);
+                expected.set(row);
+            }
+        }
+
+        return bitmap;
+    }
+
+    @Test
+    void test_add() {
+        RowBitmap bitmap = RowBitmap.of(new int[] {0, 3, 65535, 65536, 1 << 20});
+
+        assertEquals(5, bitmap.cardinality());
+        assertTrue(bitmap.contains(65535));
+        assertTrue(bitmap.contains(1 << 20));
+        assertFalse(bitmap.contains(1));
+        assertArrayEquals(new int[] {0, 3, 65535, 65536, 1 << 20}, bitmap.toArray());
+
+        assertTrue(RowBitmap.empty().isEmpty());
+        assertEquals(0, RowBitmap.empty().toArray().length);
+    }
+
+    @Test
+    void test_and_or() {
+        Random random = new Random(19);
+
+        BitSet expectedA = new BitSet();
+        BitSet expectedB = new BitSet();
+        RowBitmap a = random(random, expectedA, 0.5);
+        RowBitmap b = random(random, expectedB, 0.05);
+
+        BitSet and = (BitSet) expectedA.clone();
+        and.and(expectedB);
+        BitSet or = (BitSet) expectedA.clone();
+        or.or(expectedB);
+
+        assertArrayEquals(expectedA.stream().toArray(), a.toArray());
+        assertArrayEquals(and.stream().toArray(), a.and(b).toArray());
+        assertArrayEquals(and.stream().toArray(), b.and(a).toArray());
+        assertArrayEquals(or.stream().toArray(), a.or(b).toArray());
+        assertArrayEquals(or.stream().toArray(), b.or(a).toArray());
+        assertArrayEquals(or.stream().toArray(), RowBitmap.union(List.of(a, b)).toArray());
+        assertEquals(or.cardinality(), a.or(b).cardinality());
+
+        // Operands are not modified
+        assertArrayEquals(expectedA.stream().toArray(), a.toArray());
+        assertArrayEquals(expectedB.stream().toArray(), b.toArray());
+    }
+}
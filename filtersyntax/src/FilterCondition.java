@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -45,6 +46,80 @@ public class FilterCondition {
         return conditions;
     }
 
+    /**
+     * Get the normalized condition, which matches exactly the same data as this condition.
+     * <p>
+     * The entities of each AND group are deduplicated and sorted,
+     * then the AND groups are deduplicated and sorted as well.
+     * Conditions only different in the order or the duplicates of the terms are equal after normalized.
+     *
+     * @return normalized condition
+     */
+    public FilterCondition normalized() {
+        FilterCondition normalized = new FilterCondition();
+
+        conditions.stream()
+                .map(entitiesAND -> entitiesAND
+                        .stream()
+                        .distinct()
+                        .sorted(Comparator.comparing(FilterConditionEntity::toString))
+                        .collect(Collectors.toList()))
+                .distinct()
+                .sorted(Comparator.comparing(Object::toString))
+                .forEach(normalized::pushConditionsAND);
+
+        return normalized;
+    }
+
+    /**
+     * Check if every data entry matching this condition also matches {@code other},
+     * so the data matching this condition can be filtered from the data already filtered by {@code other}.
+     * <p>
+     * This holds if each AND group of this condition implies any AND group of {@code other},
+     * which means each condition of that group is implied by a condition of this group.
+     * For example, {@code %state% = WI & %confirmed% > 100} is stricter than {@code %state% = WI},
+     * and {@code %confirmed% > 200} is stricter than {@code %confirmed% > 100 | %fatal% > 10}.
+     * Conditions which cannot be proved are considered not stricter.
+     *
+     * @param other condition to be compared
+     * @return if this condition is provably stricter than or equivalent to {@code other}
+     * @see FilterConditionEntity#implies(FilterConditionEntity)
+     */
+    public boolean isStricterThan(FilterCondition other) {
+        // No condition matches all data
+        if (other.conditions.isEmpty()) {
+            return true;
+        }
+        if (conditions.isEmpty()) {
+            return false;
+        }
+
+        return conditions
+                .stream()
+                .allMatch(entitiesAND -> other.conditions
+                        .stream()
+                        .anyMatch(otherAND -> otherAND
+                                .stream()
+                                .allMatch(otherEntity -> entitiesAND
+                                        .stream()
+                                        .anyMatch(entity -> entity.implies(otherEntity)))));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FilterCondition that = (FilterCondition) o;
+
+        return conditions.equals(that.conditions);
+    }
+
+    @Override
+    public int hashCode() {
+        return conditions.hashCode();
+    }
+
     @Override
     public String toString() {
         return conditions
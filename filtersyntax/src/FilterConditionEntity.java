@@ -1,3 +1,5 @@
+import java.time.LocalDate;
+
 /**
  * A class represents a single filter condition.
  */
@@ -24,6 +26,11 @@ public class FilterConditionEntity {
                     FilterSyntaxErrorReason.ZIP_CODE_UNCOMPARABLE,
                     String.format("ZIP code should not be compared. The only valid comparator is %s", FilterComparator.EQ));
         }
+        if (parameter == FilterParameter.WITHIN && comparator != FilterComparator.EQ) {
+            throw new FilterSyntaxError(
+                    FilterSyntaxErrorReason.RADIUS_UNCOMPARABLE,
+                    String.format("Radius area should not be compared. The only valid comparator is %s", FilterComparator.EQ));
+        }
 
         // Check value castable
         try {
@@ -44,13 +51,97 @@ public class FilterConditionEntity {
     }
 
     public Object getVal() {
+        return getVal(UnitedStates.current());
+    }
+
+    /**
+     * Get the casted value, resolving the states and the counties from {@code unitedStates}.
+     *
+     * @param unitedStates population data to resolve the states and the counties from
+     * @return casted value
+     */
+    public Object getVal(UnitedStates unitedStates) {
         try {
-            return this.parameter.cast(val);
+            return this.parameter.cast(val, unitedStates);
         } catch (FilterSyntaxError filterSyntaxError) {
             return null;  // This should not happen as `val` is checked during construction
         }
     }
 
+    /**
+     * Check if every data entry matching this condition also matches {@code other}.
+     * <p>
+     * This holds for the conditions on the same parameter with the same comparator and value,
+     * and for a tighter bound of an ordered parameter, such as {@code %confirmed% > 200} for {@code %confirmed% >= 100}.
+     * Conditions which cannot be proved are considered not implying {@code other}.
+     *
+     * @param other condition to be compared
+     * @return if this condition provably implies {@code other}
+     */
+    public boolean implies(FilterConditionEntity other) {
+        if (this.equals(other)) {
+            return true;
+        }
+        if (parameter != other.parameter) {
+            return false;
+        }
+
+        Object val = getVal();
+        Object otherVal = other.getVal();
+        if (val == null || otherVal == null) {
+            return false;
+        }
+
+        // The same state or county spelled differently
+        if (comparator == other.comparator && val.equals(otherVal)) {
+            return true;
+        }
+
+        double bound = toOrdered(val);
+        double otherBound = toOrdered(otherVal);
+        if (Double.isNaN(bound) || Double.isNaN(otherBound)) {
+            return false;
+        }
+
+        switch (other.comparator) {
+            case GT:
+                return (comparator == FilterComparator.GT && bound >= otherBound)
+                        || ((comparator == FilterComparator.GTE || comparator == FilterComparator.EQ)
+                        && bound > otherBound);
+            case GTE:
+                return (comparator == FilterComparator.GT || comparator == FilterComparator.GTE
+                        || comparator == FilterComparator.EQ) && bound >= otherBound;
+            case LT:
+                return (comparator == FilterComparator.LT && bound <= otherBound)
+                        || ((comparator == FilterComparator.LTE || comparator == FilterComparator.EQ)
+                        && bound < otherBound);
+            case LTE:
+                return (comparator == FilterComparator.LT || comparator == FilterComparator.LTE
+                        || comparator == FilterComparator.EQ) && bound <= otherBound;
+            case EQ:
+                return comparator == FilterComparator.EQ && bound == otherBound;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Convert the casted value of an ordered parameter to {@code double} keeping the order.
+     *
+     * @param val casted value
+     * @return converted value. {@code NaN} if the parameter is not ordered.
+     */
+    private static double toOrdered(Object val) {
+        if (val instanceof Number) {
+            return ((Number) val).doubleValue();
+        }
+        if (val instanceof LocalDate) {
+            return ((LocalDate) val).toEpochDay();
+        }
+
+        return Double.NaN;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
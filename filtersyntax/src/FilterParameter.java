@@ -44,6 +44,10 @@ public enum FilterParameter implements FilterElement {
      * ZIP code of the city
      */
     ZIP_CODE("%zip%"),
+    /**
+     * Within the radius of a location ({@code km@lat,lon})
+     */
+    WITHIN("%within%"),
     /**
      * Date of the data entry
      */
@@ -117,18 +121,29 @@ public enum FilterParameter implements FilterElement {
     }
 
     /**
-     * Cast the item to the target type.
+     * Cast the item to the target type. States and counties are resolved from {@code UnitedStates.current()}.
      *
      * @param item item to be casted
      * @return casted object
      */
     public Object cast(String item) throws FilterSyntaxError {
+        return cast(item, UnitedStates.current());
+    }
+
+    /**
+     * Cast the item to the target type.
+     *
+     * @param item item to be casted
+     * @param unitedStates population data to resolve the states and the counties from
+     * @return casted object
+     */
+    public Object cast(String item, UnitedStates unitedStates) throws FilterSyntaxError {
         switch (this) {
             case STATE:
-                return UnitedStates.current.getState(item);
+                return unitedStates.getState(item);
 
             case COUNTY:
-                return UnitedStates.current.getCounty(item);
+                return unitedStates.getCounty(item);
 
             case CONFIRMED:
             case FATAL:
@@ -178,6 +193,21 @@ public enum FilterParameter implements FilterElement {
                 }
                 return lon;
 
+            case WITHIN:
+                String[] radiusCenter = item.split("@", 2);
+                String[] latLon = radiusCenter[radiusCenter.length - 1].split(",", 2);
+                if (radiusCenter.length != 2 || latLon.length != 2) {
+                    throw new FilterSyntaxError(FilterSyntaxErrorReason.RADIUS_UNCASTABLE, item);
+                }
+
+                double radiusKm = castDouble(radiusCenter[0].strip(), FilterSyntaxErrorReason.RADIUS_UNCASTABLE);
+                if (radiusKm < 0) {
+                    throw new FilterSyntaxError(FilterSyntaxErrorReason.RADIUS_NEGATIVE, Double.toString(radiusKm));
+                }
+                double centerLat = (double) LATITUDE.cast(latLon[0].strip());
+                double centerLon = (double) LONGITUDE.cast(latLon[1].strip());
+                return new GeoRadius(centerLat, centerLon, radiusKm);
+
             case DATE:
                 try {
                     return LocalDate.parse(item);
@@ -80,6 +80,19 @@ public enum FilterSyntaxErrorReason {
      */
     LONGITUDE_UNCASTABLE,
 
+    /**
+     * Radius area uncastable (valid format: km@lat,lon).
+     */
+    RADIUS_UNCASTABLE,
+    /**
+     * Radius distance is negative.
+     */
+    RADIUS_NEGATIVE,
+    /**
+     * Radius area should not be compared.
+     */
+    RADIUS_UNCOMPARABLE,
+
     /**
      * Date string unparsable.
      */
@@ -26,6 +26,7 @@ class TestFilterParameterParsing {
         assertEquals(FilterParameter.LATITUDE, FilterParameter.parse("%lat%"));
         assertEquals(FilterParameter.LONGITUDE, FilterParameter.parse("%lon%"));
         assertEquals(FilterParameter.ZIP_CODE, FilterParameter.parse("%zip%"));
+        assertEquals(FilterParameter.WITHIN, FilterParameter.parse("%within%"));
         assertEquals(FilterParameter.DATE, FilterParameter.parse("%date%"));
     }
 
@@ -46,6 +47,10 @@ class TestFilterParameterParsing {
         assertEquals(50.9, FilterParameter.LATITUDE.cast("50.9"));
         assertEquals(-25.4, FilterParameter.LONGITUDE.cast("-25.4"));
         assertEquals(53714, FilterParameter.ZIP_CODE.cast("53714"));
+        GeoRadius radius = (GeoRadius)FilterParameter.WITHIN.cast("50.5@43.07, -89.4");
+        assertEquals(50.5, radius.getRadiusKm());
+        assertEquals(43.07, radius.getLatitude());
+        assertEquals(-89.4, radius.getLongitude());
         assertEquals(LocalDate.of(2020, Month.APRIL, 7), FilterParameter.DATE.cast("2020-04-07"));
     }
 
@@ -230,6 +235,40 @@ class TestFilterParameterParsing {
                         () -> assertNull(FilterParameter.ZIP_CODE.cast("-8"))).getReason());
     }
 
+    @Test
+    void test_cast_malformed_within() {
+        assertEquals(
+                FilterSyntaxErrorReason.RADIUS_UNCASTABLE,
+                assertThrows(
+                        FilterSyntaxError.class,
+                        () -> assertNull(FilterParameter.WITHIN.cast("50"))).getReason());
+        assertEquals(
+                FilterSyntaxErrorReason.RADIUS_UNCASTABLE,
+                assertThrows(
+                        FilterSyntaxError.class,
+                        () -> assertNull(FilterParameter.WITHIN.cast("50@43.07"))).getReason());
+        assertEquals(
+                FilterSyntaxErrorReason.RADIUS_UNCASTABLE,
+                assertThrows(
+                        FilterSyntaxError.class,
+                        () -> assertNull(FilterParameter.WITHIN.cast("A@43.07,-89.4"))).getReason());
+        assertEquals(
+                FilterSyntaxErrorReason.RADIUS_NEGATIVE,
+                assertThrows(
+                        FilterSyntaxError.class,
+                        () -> assertNull(FilterParameter.WITHIN.cast("-1@43.07,-89.4"))).getReason());
+        assertEquals(
+                FilterSyntaxErrorReason.LATITUDE_OUT_OF_RANGE,
+                assertThrows(
+                        FilterSyntaxError.class,
+                        () -> assertNull(FilterParameter.WITHIN.cast("50@91,-89.4"))).getReason());
+        assertEquals(
+                FilterSyntaxErrorReason.LONGITUDE_UNCASTABLE,
+                assertThrows(
+                        FilterSyntaxError.class,
+                        () -> assertNull(FilterParameter.WITHIN.cast("50@43.07,W"))).getReason());
+    }
+
     @Test
     void test_cast_malformed_date() {
         assertEquals(
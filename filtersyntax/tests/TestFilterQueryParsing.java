@@ -139,4 +139,53 @@ class TestFilterQueryParsing {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void test_normalized() throws FilterSyntaxError {
+        FilterCondition cond = FilterQueryParser.parse("%fatal% > 5 & %state% = WI & %fatal% > 5 | %confirmed% > 70");
+        FilterCondition reordered = FilterQueryParser.parse("%confirmed% > 70 | %state% = WI & %fatal% > 5");
+
+        assertNotEquals(cond, reordered);
+        assertEquals(cond.normalized(), reordered.normalized());
+        assertEquals(cond.normalized().hashCode(), reordered.normalized().hashCode());
+        assertEquals(2, cond.normalized().getConditions().get(1).size());
+
+        assertNotEquals(cond.normalized(), FilterQueryParser.parse("%confirmed% > 70").normalized());
+        assertEquals(new FilterCondition(), new FilterCondition().normalized());
+    }
+
+    @Test
+    void test_stricter() throws FilterSyntaxError {
+        FilterCondition wi = FilterQueryParser.parse("%state% = WI");
+
+        // AND-superset
+        assertTrue(FilterQueryParser.parse("%state% = WI & %confirmed% > 100").isStricterThan(wi));
+        assertFalse(wi.isStricterThan(FilterQueryParser.parse("%state% = WI & %confirmed% > 100")));
+        assertTrue(wi.isStricterThan(wi));
+        assertTrue(wi.isStricterThan(new FilterCondition()));
+        assertFalse(new FilterCondition().isStricterThan(wi));
+
+        // Tightened bounds
+        assertTrue(FilterQueryParser.parse("%confirmed% > 200").isStricterThan(
+                FilterQueryParser.parse("%confirmed% >= 100")));
+        assertTrue(FilterQueryParser.parse("%confirmed% = 100").isStricterThan(
+                FilterQueryParser.parse("%confirmed% >= 100")));
+        assertFalse(FilterQueryParser.parse("%confirmed% >= 100").isStricterThan(
+                FilterQueryParser.parse("%confirmed% > 100")));
+        assertTrue(FilterQueryParser.parse("%death_rate% < 1.5").isStricterThan(
+                FilterQueryParser.parse("%death_rate% <= 1.5")));
+        assertTrue(FilterQueryParser.parse("%date% < 2020-04-01").isStricterThan(
+                FilterQueryParser.parse("%date% < 2020-05-01")));
+        assertFalse(FilterQueryParser.parse("%date% > 2020-04-01").isStricterThan(
+                FilterQueryParser.parse("%date% < 2020-05-01")));
+        assertFalse(FilterQueryParser.parse("%fatal% > 200").isStricterThan(
+                FilterQueryParser.parse("%confirmed% > 100")));
+
+        // OR groups
+        FilterCondition either = FilterQueryParser.parse("%confirmed% > 100 | %fatal% > 10");
+        assertTrue(FilterQueryParser.parse("%confirmed% > 200").isStricterThan(either));
+        assertTrue(FilterQueryParser.parse("%fatal% > 20 | %confirmed% > 100 & %state% = WI").isStricterThan(either));
+        assertFalse(either.isStricterThan(FilterQueryParser.parse("%confirmed% > 100")));
+        assertFalse(FilterQueryParser.parse("%confirmed% > 200 | %state% = WI").isStricterThan(either));
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * A hash index from the case-insensitive names to the values.
+ *
+ * Names are compared in the same way as {@code String.equalsIgnoreCase()},
+ * but without creating any lower-cased copy of the name, so a lookup does not allocate.
+ *
+ * The index is built once and not modified after the lookups begin.
+ *
+ * @param <V> type of the indexed values
+ */
+public class CaseInsensitiveIndex<V> {
+	private String[] keys;
+	private Object[] values;
+	private int size;
+
+	/**
+	 * Construct an index which can hold {@code expectedSize} names without growing.
+	 *
+	 * @param expectedSize expected count of the names
+	 */
+	public CaseInsensitiveIndex(int expectedSize) {
+		int capacity = 8;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+
+		this.keys = new String[capacity];
+		this.values = new Object[capacity];
+	}
+
+	/**
+	 * Hash of {@code name} which is identical for the names equal ignoring case.
+	 */
+	private static int hash(String name) {
+		int hash = 0;
+		for (int i = 0; i < name.length(); i++) {
+			hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+		}
+
+		// Spread the higher bits for the power of 2 table
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Index {@code value} with {@code name} unless {@code name} has already been indexed.
+	 *
+	 * The first value indexed with a name wins, as the linear search would find it first.
+	 *
+	 * @param name name of the value
+	 * @param value value to be indexed
+	 */
+	public void putIfAbsent(String name, V value) {
+		if (name == null) {
+			return;
+		}
+
+		if ((size + 1) * 2 > keys.length) {
+			grow();
+		}
+
+		int mask = keys.length - 1;
+		for (int i = hash(name) & mask; ; i = (i + 1) & mask) {
+			if (keys[i] == null) {
+				keys[i] = name;
+				values[i] = value;
+				size++;
+				return;
+			}
+			if (keys[i].equalsIgnoreCase(name)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Get the value indexed with {@code name} ignoring case.
+	 *
+	 * @param name name of the value
+	 * @return indexed value. {@code null} if not found.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(String name) {
+		if (name == null) {
+			return null;
+		}
+
+		int mask = keys.length - 1;
+		for (int i = hash(name) & mask; keys[i] != null; i = (i + 1) & mask) {
+			if (keys[i].equalsIgnoreCase(name)) {
+				return (V) values[i];
+			}
+		}
+
+		return null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void grow() {
+		String[] oldKeys = keys;
+		Object[] oldValues = values;
+
+		keys = new String[oldKeys.length * 2];
+		values = new Object[oldValues.length * 2];
+		size = 0;
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				putIfAbsent(oldKeys[i], (V) oldValues[i]);
+			}
+		}
+	}
+}
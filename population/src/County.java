@@ -1,3 +1,4 @@
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -8,7 +9,7 @@ public class County implements IPopulation {
 	private final int population;
 	private final double latitude;
 	private final double longitude;
-	private final List<Integer> zips;
+	private final int[] zips;
 
 	/**
 	 * Construct a county.
@@ -24,6 +25,24 @@ public class County implements IPopulation {
 	 * @throws InvalidCountyNameException thrown when {@code name} is invalid
 	 */
 	public County(String name, double latitude, double longitude, int population, List<Integer> zips) throws InvalidLatitudeException, InvalidLongitudeException, 
+	InvalidPopulationCount, InvalidCountyNameException {
+		this(name, latitude, longitude, population, zips.stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	/**
+	 * Construct a county.
+	 *
+	 * @param name name of the county. should not be empty and alphabets only
+	 * @param latitude latitude of the county
+	 * @param longitude longitude of the county
+	 * @param population population of the county. 0 if no data
+	 * @param zips zip code(s) of the county
+	 * @throws InvalidLatitudeException thrown when {@code latitude} is not in the range of -90~90
+	 * @throws InvalidLongitudeException thrown when {@code longitude} is not in the range of -180~180
+	 * @throws InvalidPopulationCount thrown when {@code population} is a negative integer
+	 * @throws InvalidCountyNameException thrown when {@code name} is invalid
+	 */
+	public County(String name, double latitude, double longitude, int population, int[] zips) throws InvalidLatitudeException, InvalidLongitudeException,
 	InvalidPopulationCount, InvalidCountyNameException {
 		this.name = name;
 		if (name == null || name.strip().equals("") || !StringUtils.isAlphabets(name))  {
@@ -41,7 +60,7 @@ public class County implements IPopulation {
 		if (population < 0) {
 			throw new InvalidPopulationCount(population);
 		}
-		this.zips = zips;
+		this.zips = Arrays.stream(zips).sorted().distinct().toArray();
 	}
 
 	public String getName() {
@@ -62,10 +81,27 @@ public class County implements IPopulation {
 		return population;
 	}
 
-	public List<Integer> getZips() {
+	/**
+	 * Get the distinct zip codes of this county in sorted order (ASC).
+	 *
+	 * The returned array should not be modified.
+	 *
+	 * @return sorted zip codes
+	 */
+	public int[] getZips() {
 		return zips;
 	}
 
+	/**
+	 * Check if {@code zip} is one of the zip codes of this county.
+	 *
+	 * @param zip zip code to be checked
+	 * @return if this county has the zip code
+	 */
+	public boolean hasZip(int zip) {
+		return Arrays.binarySearch(zips, zip) >= 0;
+	}
+
 	@Override
 	public String toString() {
 		return this.name;
@@ -82,7 +118,7 @@ public class County implements IPopulation {
 		if (Double.compare(county.latitude, latitude) != 0) return false;
 		if (Double.compare(county.longitude, longitude) != 0) return false;
 		if (!name.equals(county.name)) return false;
-		return zips.equals(county.zips);
+		return Arrays.equals(zips, county.zips);
 	}
 
 	@Override
@@ -95,7 +131,7 @@ public class County implements IPopulation {
 		result = 31 * result + (int) (temp ^ (temp >>> 32));
 		temp = Double.doubleToLongBits(longitude);
 		result = 31 * result + (int) (temp ^ (temp >>> 32));
-		result = 31 * result + zips.hashCode();
+		result = 31 * result + Arrays.hashCode(zips);
 		return result;
 	}
 }
@@ -0,0 +1,143 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A k-d tree over the coordinates of the counties.
+ *
+ * Each county is placed as a point on the unit sphere, so the great-circle distance turns into
+ * the straight-line (chord) distance between the points. A radius query then compares the squared distances only,
+ * and the trigonometry is calculated once per county when building and once per query.
+ *
+ * The tree is stored in arrays: the node of the range {@code [from, to)} is the median at {@code (from + to) / 2},
+ * splitting the points by the axis of its depth.
+ */
+public class CountySpatialIndex {
+	private static final int DIMENSIONS = 3;
+
+	private final County[] counties;
+	private final double[][] points;
+
+	/**
+	 * Build the index of the counties of {@code states}.
+	 *
+	 * @param states states containing the counties to be indexed
+	 */
+	public CountySpatialIndex(List<State> states) {
+		this.counties = states.stream()
+				.flatMap(state -> state.getCounties().stream())
+				.toArray(County[]::new);
+
+		this.points = new double[counties.length][];
+		for (int i = 0; i < counties.length; i++) {
+			points[i] = GeoRadius.toPoint(counties[i].getLatitude(), counties[i].getLongitude());
+		}
+
+		build(0, counties.length, 0);
+	}
+
+	/**
+	 * Arrange {@code [from, to)} so that the median of {@code axis} is at the middle,
+	 * with the smaller ones before it and the larger ones after it.
+	 */
+	private void build(int from, int to, int axis) {
+		if (to - from <= 1) {
+			return;
+		}
+
+		int mid = (from + to) >>> 1;
+		select(from, to - 1, mid, axis);
+
+		int next = (axis + 1) % DIMENSIONS;
+		build(from, mid, next);
+		build(mid + 1, to, next);
+	}
+
+	/**
+	 * Move the {@code k}-th smallest point of {@code axis} in {@code [left, right]} to {@code k} (quickselect).
+	 */
+	private void select(int left, int right, int k, int axis) {
+		while (left < right) {
+			double pivot = points[(left + right) >>> 1][axis];
+			int i = left;
+			int j = right;
+
+			while (i <= j) {
+				while (points[i][axis] < pivot) {
+					i++;
+				}
+				while (points[j][axis] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(i++, j--);
+				}
+			}
+
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private void swap(int i, int j) {
+		double[] point = points[i];
+		points[i] = points[j];
+		points[j] = point;
+
+		County county = counties[i];
+		counties[i] = counties[j];
+		counties[j] = county;
+	}
+
+	/**
+	 * Get the counties located within {@code radius}.
+	 *
+	 * @param radius circle to search the counties in
+	 * @return counties in the circle, including the ones on the border. The order is unspecified.
+	 */
+	public List<County> within(GeoRadius radius) {
+		List<County> result = new ArrayList<>();
+
+		search(0, counties.length, 0, GeoRadius.toPoint(radius.getLatitude(), radius.getLongitude()),
+				radius.squaredChord(), result);
+
+		return result;
+	}
+
+	private void search(int from, int to, int axis, double[] center, double squaredChord, List<County> result) {
+		if (from >= to) {
+			return;
+		}
+
+		int mid = (from + to) >>> 1;
+		double[] point = points[mid];
+
+		double squaredDistance = 0;
+		for (int i = 0; i < DIMENSIONS; i++) {
+			double diff = point[i] - center[i];
+			squaredDistance += diff * diff;
+		}
+		if (squaredDistance <= squaredChord) {
+			result.add(counties[mid]);
+		}
+
+		double diff = center[axis] - point[axis];
+		int next = (axis + 1) % DIMENSIONS;
+
+		// Points equal to the median may be on either side
+		if (diff <= 0 || diff * diff <= squaredChord) {
+			search(from, mid, next, center, squaredChord, result);
+		}
+		if (diff >= 0 || diff * diff <= squaredChord) {
+			search(mid + 1, to, next, center, squaredChord, result);
+		}
+	}
+
+	public int size() {
+		return counties.length;
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * A circle on the earth surface, given by the center coordinates and the radius.
+ */
+public class GeoRadius {
+	/**
+	 * Mean radius of the earth in kilometers.
+	 */
+	public static final double EARTH_RADIUS_KM = 6371.0088;
+
+	private final double latitude;
+	private final double longitude;
+	private final double radiusKm;
+
+	/**
+	 * @param latitude latitude of the center. -90~90
+	 * @param longitude longitude of the center. -180~180
+	 * @param radiusKm radius in kilometers along the earth surface. Should not be negative.
+	 */
+	public GeoRadius(double latitude, double longitude, double radiusKm) {
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.radiusKm = radiusKm;
+	}
+
+	public double getLatitude() {
+		return latitude;
+	}
+
+	public double getLongitude() {
+		return longitude;
+	}
+
+	public double getRadiusKm() {
+		return radiusKm;
+	}
+
+	/**
+	 * Check if the given coordinates are within this circle, including the border.
+	 *
+	 * This gives the same result as {@code CountySpatialIndex.within()} for the coordinates of a county.
+	 *
+	 * @param latitude latitude to be checked
+	 * @param longitude longitude to be checked
+	 * @return if the coordinates are within this circle
+	 */
+	public boolean contains(double latitude, double longitude) {
+		double[] point = toPoint(latitude, longitude);
+		double[] center = toPoint(this.latitude, this.longitude);
+
+		double squaredDistance = 0;
+		for (int i = 0; i < point.length; i++) {
+			double diff = point[i] - center[i];
+			squaredDistance += diff * diff;
+		}
+
+		return squaredDistance <= squaredChord();
+	}
+
+	/**
+	 * Get the squared straight-line (chord) distance on the unit sphere equivalent to the radius.
+	 * Beyond the antipode covers the whole sphere.
+	 */
+	double squaredChord() {
+		double angle = Math.min(radiusKm / EARTH_RADIUS_KM, Math.PI);
+		double chord = 2 * Math.sin(angle / 2);
+
+		return chord * chord;
+	}
+
+	/**
+	 * Convert the coordinates to a point on the unit sphere.
+	 */
+	static double[] toPoint(double latitude, double longitude) {
+		double lat = Math.toRadians(latitude);
+		double lon = Math.toRadians(longitude);
+
+		return new double[] {Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%skm@%s,%s", radiusKm, latitude, longitude);
+	}
+}
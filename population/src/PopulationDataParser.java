@@ -3,6 +3,7 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class PopulationDataParser {
 	private static final int IDX_STATE = 0;
@@ -12,51 +13,84 @@ public class PopulationDataParser {
 	private static final int IDX_LON = 4;
 	private static final int IDX_ZIPS = 5;
 
+	private static final int FIELD_COUNT = 6;
+	private static final int MIN_FIELD_COUNT = 5;
+
 	/**
-	 * Load the US population data to {@code UnitedStates.current}.
+	 * Load the US population data and publish it to {@code UnitedStates.current()}.
 	 *
-	 * @param path path of US population data file
+	 * @param path path of US population data file. The file can be compressed.
 	 * @param converter converter class to convert state name abbreviation to full name
 	 * @throws IOException thrown if file not found
 	 */
 	public static void loadUsPopFile(String path, StateNameConverter converter) throws IOException {
-		Map<String, List<County>> data = new HashMap<>();  // State abbr and list of counties
+		UnitedStates.load(parseUsPopFile(path, converter));
+	}
+
+	/**
+	 * Load the US population data using its snapshot and publish it to {@code UnitedStates.current()},
+	 * recording each stage to {@code profiler}.
+	 *
+	 * If the snapshot is missing or outdated, the population data file is parsed and the snapshot is rewritten.
+	 * Otherwise, the text parsing is skipped completely.
+	 *
+	 * @param path path of US population data file. The file can be compressed.
+	 * @param converter converter class to convert state name abbreviation to full name
+	 * @param profiler profiler to record the stages of the loading
+	 * @throws IOException thrown if file not found
+	 */
+	public static void loadUsPopFile(String path, StateNameConverter converter, IngestProfiler profiler)
+			throws IOException {
+		List<State> usData;
+		try (IngestProfiler.Stage stage = profiler.start("Reading population snapshot")) {
+			usData = PopulationSnapshotCache.load(path, converter);
 
-		Files.lines(Paths.get(path)).map(line -> line.split(",", 6)).forEach(lineEntry -> {
-			if (lineEntry.length < 5) {
-				return;
+			if (usData != null) {
+				stage.bytes(Files.size(PopulationSnapshotCache.snapshotPath(path))).rows(countCounties(usData));
 			}
+		}
 
-			String stateAbbr = lineEntry[IDX_STATE];
-			String countyName = lineEntry[IDX_COUNTY];
-			int population = Integer.parseInt(lineEntry[IDX_POPULATION]);
-			double latitude = Double.parseDouble(lineEntry[IDX_LAT]);
-			double longitude = Double.parseDouble(lineEntry[IDX_LON]);
-
-			String[] zipcodes;
-			if (lineEntry.length > IDX_ZIPS) {
-				zipcodes = lineEntry[IDX_ZIPS].split(" ");
-			} else {
-				zipcodes = new String[] {};
+		if (usData == null) {
+			try (IngestProfiler.Stage stage = profiler.start("Parsing population file")) {
+				usData = parseUsPopFile(path, converter);
+				stage.bytes(Files.size(Paths.get(path))).rows(countCounties(usData));
 			}
 
-			List<Integer> zips = Arrays.stream(zipcodes)
-					.filter(codes -> codes.length() > 0)
-					.map(Integer::valueOf)
-					.collect(Collectors.toList());
+			try (IngestProfiler.Stage stage = profiler.start("Saving population snapshot")) {
+				PopulationSnapshotCache.save(path, usData);
+				stage.rows(countCounties(usData));
+			} catch (IOException e) {
+				System.out.println("Failed to save the population snapshot. The file will be parsed again next time.");
+			}
+		}
 
-			List<County> countyList = data.get(stateAbbr);
+		UnitedStates.load(usData);
+	}
 
-			if (!data.containsKey(stateAbbr)) {
-				countyList = new ArrayList<>();
-				data.put(stateAbbr, countyList);
-			}
-			try {
-				countyList.add(new County(countyName, latitude, longitude, population, zips));
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		});
+	/**
+	 * Parse the US population data file without loading it.
+	 *
+	 * The lines are parsed in parallel. The counties keep the order of the file in each state.
+	 *
+	 * @param path path of US population data file. The file can be compressed.
+	 * @param converter converter class to convert state name abbreviation to full name
+	 * @return list of the states in the file
+	 * @throws IOException thrown if file not found
+	 */
+	public static List<State> parseUsPopFile(String path, StateNameConverter converter) throws IOException {
+		List<String> lines;
+		try (Stream<String> stream = CompressedFiles.lines(path)) {
+			lines = stream.collect(Collectors.toList());
+		}
+
+		// State abbr and list of counties. Grouping an ordered stream keeps the order of the counties.
+		Map<String, List<County>> data = lines.parallelStream()
+				.map(PopulationDataParser::parseLine)
+				.filter(Objects::nonNull)
+				.collect(Collectors.groupingBy(
+						line -> line.stateAbbr,
+						HashMap::new,
+						Collectors.mapping(line -> line.county, Collectors.toList())));
 
 		List<State> usData = new ArrayList<>();
 
@@ -69,6 +103,98 @@ public class PopulationDataParser {
 			}
 		});
 
-		UnitedStates.load(usData);
+		return usData;
+	}
+
+	/**
+	 * Parse a single line of the population data file.
+	 *
+	 * @param line line to be parsed
+	 * @return parsed county with its state. {@code null} if the line is incomplete or the county is invalid.
+	 */
+	private static CountyLine parseLine(String line) {
+		// Boundaries of the fields. The last field takes the rest of the line.
+		int[] starts = new int[FIELD_COUNT];
+		int[] ends = new int[FIELD_COUNT];
+
+		int fieldCount = 0;
+		int pos = 0;
+		while (fieldCount < FIELD_COUNT) {
+			int separator = fieldCount == FIELD_COUNT - 1 ? -1 : line.indexOf(',', pos);
+
+			starts[fieldCount] = pos;
+			ends[fieldCount] = separator < 0 ? line.length() : separator;
+			fieldCount++;
+
+			if (separator < 0) {
+				break;
+			}
+			pos = separator + 1;
+		}
+
+		if (fieldCount < MIN_FIELD_COUNT) {
+			return null;
+		}
+
+		String stateAbbr = line.substring(starts[IDX_STATE], ends[IDX_STATE]);
+		String countyName = line.substring(starts[IDX_COUNTY], ends[IDX_COUNTY]);
+		int population = Integer.parseInt(line, starts[IDX_POPULATION], ends[IDX_POPULATION], 10);
+		double latitude = Double.parseDouble(line.substring(starts[IDX_LAT], ends[IDX_LAT]));
+		double longitude = Double.parseDouble(line.substring(starts[IDX_LON], ends[IDX_LON]));
+
+		int[] zips = fieldCount > IDX_ZIPS ? parseZips(line, starts[IDX_ZIPS], ends[IDX_ZIPS]) : new int[] {};
+
+		try {
+			return new CountyLine(stateAbbr, new County(countyName, latitude, longitude, population, zips));
+		} catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Parse the space-separated zip codes in {@code [start, end)} of {@code line} without boxing.
+	 *
+	 * @throws NumberFormatException thrown if any of the zip code is not a number
+	 */
+	private static int[] parseZips(String line, int start, int end) {
+		int[] zips = new int[(end - start) / 6 + 1];
+		int count = 0;
+
+		int pos = start;
+		while (pos < end) {
+			int next = line.indexOf(' ', pos);
+			if (next < 0 || next > end) {
+				next = end;
+			}
+
+			if (next > pos) {
+				if (count == zips.length) {
+					zips = Arrays.copyOf(zips, count * 2);
+				}
+				zips[count++] = Integer.parseInt(line, pos, next, 10);
+			}
+
+			pos = next + 1;
+		}
+
+		return Arrays.copyOf(zips, count);
+	}
+
+	private static long countCounties(List<State> usData) {
+		return usData.stream().mapToLong(state -> state.getCounties().size()).sum();
+	}
+
+	/**
+	 * A county parsed from a line with the abbreviation of its state.
+	 */
+	private static class CountyLine {
+		private final String stateAbbr;
+		private final County county;
+
+		private CountyLine(String stateAbbr, County county) {
+			this.stateAbbr = stateAbbr;
+			this.county = county;
+		}
 	}
 }
@@ -0,0 +1,200 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the parsed population data file, stored next to the population data file.
+ *
+ * The snapshot is keyed by the size, the last modified time and the content hash of the population data file.
+ *
+ * Layout of the snapshot file:
+ * <ul>
+ *     <li>Header - magic, version, key</li>
+ *     <li>State count</li>
+ *     <li>States - abbreviation, county count and the counties</li>
+ *     <li>County - name, population, latitude, longitude, zip code count and the zip codes</li>
+ * </ul>
+ * Strings are stored as the length in bytes ({@code short}) followed by the UTF-8 bytes.
+ * Full names of the states are not stored, but converted when loading.
+ */
+public class PopulationSnapshotCache {
+	public static final String FILE_EXTENSION = ".snapshot";
+
+	private static final int MAGIC = 0x43313950; // C19P
+	private static final int VERSION = 1;
+
+	private static final int KEY_BYTES = Long.BYTES * 3;
+
+	/**
+	 * Get the path of the snapshot file of the population data file at {@code dataPath}.
+	 *
+	 * @param dataPath path of the population data file
+	 * @return path of the snapshot file
+	 */
+	public static Path snapshotPath(String dataPath) {
+		return Paths.get(dataPath + FILE_EXTENSION);
+	}
+
+	/**
+	 * Load the states from the snapshot of the population data file at {@code dataPath}.
+	 *
+	 * @param dataPath path of the population data file
+	 * @param converter converter class to convert state name abbreviation to full name
+	 * @return states in the snapshot. {@code null} if the snapshot does not exist, is outdated or is corrupted.
+	 * @throws IOException thrown if failed to read the population data file
+	 */
+	public static List<State> load(String dataPath, StateNameConverter converter) throws IOException {
+		Path path = snapshotPath(dataPath);
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+
+		long[] key = key(dataPath);
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.remaining() < Integer.BYTES * 2 + KEY_BYTES
+					|| buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				return null;
+			}
+			for (long part : key) {
+				if (buffer.getLong() != part) {
+					return null;
+				}
+			}
+
+			return readStates(buffer, converter);
+		}
+	}
+
+	/**
+	 * Save {@code states} as the snapshot of the population data file at {@code dataPath}.
+	 *
+	 * @param dataPath path of the population data file
+	 * @param states states parsed from the population data file
+	 * @throws IOException thrown if failed to read the population data file or to write the snapshot
+	 */
+	public static void save(String dataPath, List<State> states) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			for (long part : key(dataPath)) {
+				out.writeLong(part);
+			}
+
+			out.writeInt(states.size());
+			for (State state : states) {
+				writeString(out, state.getAbbr());
+				out.writeInt(state.getCounties().size());
+
+				for (County county : state.getCounties()) {
+					writeString(out, county.getName());
+					out.writeInt(county.getPopulation());
+					out.writeDouble(county.getLatitude());
+					out.writeDouble(county.getLongitude());
+
+					out.writeInt(county.getZips().length);
+					for (int zip : county.getZips()) {
+						out.writeInt(zip);
+					}
+				}
+			}
+		}
+
+		// Write to a temporary file first, so a partially written snapshot is never loaded
+		Path path = snapshotPath(dataPath);
+		Path temp = Paths.get(path + ".tmp");
+		Files.write(temp, bytes.toByteArray());
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Delete the snapshot of the population data file at {@code dataPath} if exists.
+	 *
+	 * @param dataPath path of the population data file
+	 * @throws IOException thrown if failed to delete the snapshot
+	 */
+	public static void invalidate(String dataPath) throws IOException {
+		Files.deleteIfExists(snapshotPath(dataPath));
+	}
+
+	/**
+	 * Key of the population data file at {@code dataPath}, which is the size, the last modified time and the CRC.
+	 */
+	private static long[] key(String dataPath) throws IOException {
+		Path path = Paths.get(dataPath);
+
+		CRC32 crc = new CRC32();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+
+		return new long[] {Files.size(path), Files.getLastModifiedTime(path).toMillis(), crc.getValue()};
+	}
+
+	/**
+	 * Read the states and create the counties.
+	 *
+	 * @return states. {@code null} if any of the state or the county is invalid.
+	 */
+	private static List<State> readStates(ByteBuffer buffer, StateNameConverter converter) {
+		int stateCount = buffer.getInt();
+		List<State> states = new ArrayList<>(stateCount);
+
+		try {
+			for (int i = 0; i < stateCount; i++) {
+				String abbr = readString(buffer);
+
+				int countyCount = buffer.getInt();
+				List<County> counties = new ArrayList<>(countyCount);
+				for (int j = 0; j < countyCount; j++) {
+					String name = readString(buffer);
+					int population = buffer.getInt();
+					double latitude = buffer.getDouble();
+					double longitude = buffer.getDouble();
+
+					int[] zips = new int[buffer.getInt()];
+					buffer.asIntBuffer().get(zips);
+					buffer.position(buffer.position() + zips.length * Integer.BYTES);
+
+					counties.add(new County(name, latitude, longitude, population, zips));
+				}
+
+				states.add(new State(abbr, converter.getFullName(abbr), counties));
+			}
+		} catch (Exception e) {
+			// Truncated or corrupted snapshot
+			return null;
+		}
+
+		return buffer.hasRemaining() ? null : states;
+	}
+
+	private static void writeString(DataOutputStream out, String str) throws IOException {
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+		buffer.get(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -6,6 +6,11 @@ public class State implements IPopulation, IPopulationCondition<County> {
 	private final String name;
 	private final List<County> counties;
 
+	/**
+	 * Total population of the counties, summed once on the construction.
+	 */
+	private final int population;
+
 	/**
 	 * Construct a state.
 	 *
@@ -27,6 +32,9 @@ public class State implements IPopulation, IPopulationCondition<County> {
 		this.abbr = abbr;
 		this.name = name;
 		this.counties = counties;
+		this.population = counties.stream()
+				.mapToInt(County::getPopulation)
+				.sum();
 	}
 
 	public String getAbbr() {
@@ -43,9 +51,7 @@ public class State implements IPopulation, IPopulationCondition<County> {
 
 	@Override
 	public int getPopulation() {
-		return counties.stream()				
-				.mapToInt(County::getPopulation)
-				.sum();
+		return population;
 	}
 
 	@Override
@@ -1,38 +1,132 @@
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
 /**
  * A class which holds all population data of the United States.
  *
- * Access this through the static class variable {@code current} for Singleton.
+ * Each instance is an immutable snapshot of the population data with its own version.
+ * The snapshot to be used in the application is published through {@code current()},
+ * and replaced atomically by {@code load()} while the others are still reading the previous one.
+ *
+ * A query or an ingest should get {@code current()} once and use the same snapshot until it ends.
+ * A replaced snapshot is reclaimed by the garbage collector once nothing refers to it.
  */
 public class UnitedStates implements IPopulation, IPopulationCondition<State> {
+	private static final AtomicLong versions = new AtomicLong();
+
 	/**
-	 * Class static variable to be accessed in the application for Singleton.
+	 * Snapshot to be accessed in the application.
 	 */
-	public static UnitedStates current = new UnitedStates(new ArrayList<>());
+	private static final AtomicReference<UnitedStates> current =
+			new AtomicReference<>(new UnitedStates(new ArrayList<>()));
+
+	private final long version;
 
 	private final List<State> states;
 
+	/**
+	 * Index of the states by both the abbreviation and the full name.
+	 */
+	private final CaseInsensitiveIndex<State> stateIndex;
+
+	/**
+	 * Index of the counties by the name for each state.
+	 */
+	private final Map<State, CaseInsensitiveIndex<County>> countyIndexes = new IdentityHashMap<>();
+
+	private final ZipCodeIndex zipCodeIndex;
+
+	private final CountySpatialIndex spatialIndex;
+
+	/**
+	 * Counties indexed by their IDs.
+	 */
+	private final County[] countiesById;
+
+	/**
+	 * IDs of the counties in this snapshot.
+	 * Kept in this snapshot rather than in the counties, so a county shared with another snapshot keeps its ID there.
+	 */
+	private final Map<County, Integer> countyIds = new IdentityHashMap<>();
+
+	private final int population;
+
 	/**p
 	 * Construct an object which holds all population data of the United States.
 	 *
-	 * Should update {@code UnitedStates.current} after this is called immediately.
+	 * Should be published through {@code UnitedStates.current()} after this is called immediately.
 	 *
 	 * @param states list of the states of the United States
 	 */
 	private UnitedStates(List<State> states) {
-		this.states = states;
+		this.version = versions.incrementAndGet();
+		this.states = Collections.unmodifiableList(new ArrayList<>(states));
+
+		// Indexed in the list order, so the first match of the linear search wins
+		this.stateIndex = new CaseInsensitiveIndex<>(states.size() * 2);
+		for (State state : states) {
+			stateIndex.putIfAbsent(state.getAbbr(), state);
+			stateIndex.putIfAbsent(state.getName(), state);
+
+			CaseInsensitiveIndex<County> countyIndex = new CaseInsensitiveIndex<>(state.getCounties().size());
+			for (County county : state.getCounties()) {
+				countyIndex.putIfAbsent(county.getName(), county);
+			}
+			countyIndexes.putIfAbsent(state, countyIndex);
+		}
+
+		this.zipCodeIndex = new ZipCodeIndex(states);
+		this.spatialIndex = new CountySpatialIndex(states);
+
+		this.countiesById = states.stream()
+				.flatMap(state -> state.getCounties().stream())
+				.toArray(County[]::new);
+		for (int id = 0; id < countiesById.length; id++) {
+			countyIds.putIfAbsent(countiesById[id], id);
+		}
+
+		this.population = states.stream()
+				.mapToInt(State::getPopulation)
+				.sum();
 	}
 
 	/**
-	 * Load the population data to {@code UnitedStates.current} for future use.
+	 * Load the population data as a new snapshot and publish it to {@code current()} for future use.
+	 *
+	 * The snapshots already in use are not affected, even if they share the states or the counties with the new one.
 	 *
 	 * @param usData list of the states of the United States
+	 * @return loaded snapshot
+	 */
+	public static UnitedStates load(List<State> usData) {
+		UnitedStates unitedStates = new UnitedStates(usData);
+		current.set(unitedStates);
+
+		return unitedStates;
+	}
+
+	/**
+	 * Get the latest snapshot of the population data.
+	 *
+	 * @return latest snapshot
 	 */
-	public static void load(List<State> usData) {
-		UnitedStates.current = new UnitedStates(usData);
+	public static UnitedStates current() {
+		return current.get();
+	}
+
+	/**
+	 * Get the version of this snapshot. A snapshot loaded later has a greater version.
+	 *
+	 * @return version of this snapshot
+	 */
+	public long getVersion() {
+		return version;
 	}
 
 	/**
@@ -42,10 +136,7 @@ public class UnitedStates implements IPopulation, IPopulationCondition<State> {
 	 * @return {@code State} which matches the condition. {@code null} if not found.
 	 */
 	public State getState(String stateAbbrName) {
-		return states.stream()
-				.filter(state -> state.getAbbr().equalsIgnoreCase(stateAbbrName) || state.getName().equalsIgnoreCase(stateAbbrName))
-				.findFirst()
-				.orElse(null);
+		return stateIndex.get(stateAbbrName);
 	}
 
 	public List<State> getStates() {
@@ -91,11 +182,60 @@ public class UnitedStates implements IPopulation, IPopulationCondition<State> {
 			return null;
 		}
 
-		return stateObj.getCounties()
-				.stream()
-				.filter(countyObj -> countyObj.getName().equalsIgnoreCase(county))
-				.findFirst()
-				.orElse(null);
+		return countyIndexes.get(stateObj).get(county);
+	}
+
+	/**
+	 * Get the county with the given ID.
+	 *
+	 * @param id ID of the county
+	 * @return county of the ID
+	 * @see #getCountyId(County)
+	 */
+	public County getCounty(int id) {
+		return countiesById[id];
+	}
+
+	/**
+	 * Get the dense ID of {@code county} in this snapshot.
+	 *
+	 * IDs are assigned from 0 in the order of the states and the counties.
+	 *
+	 * @param county county to get the ID of
+	 * @return ID of {@code county}. {@code -1} if not in this snapshot.
+	 */
+	public int getCountyId(County county) {
+		Integer id = countyIds.get(county);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Get the count of all counties, which is also the upper bound (exclusive) of the county IDs.
+	 *
+	 * @return count of all counties
+	 */
+	public int getCountyCount() {
+		return countiesById.length;
+	}
+
+	/**
+	 * Get the counties having the given zip code.
+	 *
+	 * @param zip zip code
+	 * @return counties having the zip code. Empty if not found.
+	 */
+	public List<County> getCountiesByZip(int zip) {
+		return zipCodeIndex.getCounties(zip);
+	}
+
+	/**
+	 * Get the counties located within the given radius.
+	 *
+	 * @param radius circle to search the counties in
+	 * @return counties in the circle. Empty if not found.
+	 */
+	public List<County> getCountiesWithin(GeoRadius radius) {
+		return spatialIndex.within(radius);
 	}
 
 	/**
@@ -105,9 +245,7 @@ public class UnitedStates implements IPopulation, IPopulationCondition<State> {
 	 */
 	@Override
 	public int getPopulation() {
-		return states.stream()				
-				.mapToInt(State::getPopulation)
-				.sum();	
+		return population;
 	}
 
 	/**
@@ -0,0 +1,74 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A reverse index from the zip codes to the counties having them.
+ *
+ * The counties are stored in a single array grouped by the zip code,
+ * and the range of each zip code is looked up directly by the zip code.
+ * A zip code may belong to multiple counties.
+ */
+public class ZipCodeIndex {
+	/**
+	 * Largest valid zip code.
+	 */
+	public static final int MAX_ZIP = 99999;
+
+	/**
+	 * Counties of zip code {@code z} are {@code counties[offsets[z]]} to {@code counties[offsets[z + 1] - 1]}.
+	 */
+	private final int[] offsets = new int[MAX_ZIP + 2];
+	private final County[] counties;
+
+	/**
+	 * Build the index of the zip codes of {@code states}.
+	 *
+	 * @param states states containing the counties to be indexed
+	 */
+	public ZipCodeIndex(List<State> states) {
+		// Count the counties per zip code
+		int total = 0;
+		for (State state : states) {
+			for (County county : state.getCounties()) {
+				for (int zip : county.getZips()) {
+					if (zip >= 0 && zip <= MAX_ZIP) {
+						offsets[zip + 1]++;
+						total++;
+					}
+				}
+			}
+		}
+
+		for (int zip = 0; zip <= MAX_ZIP; zip++) {
+			offsets[zip + 1] += offsets[zip];
+		}
+
+		// Place the counties in the list order
+		int[] next = Arrays.copyOf(offsets, MAX_ZIP + 1);
+		this.counties = new County[total];
+		for (State state : states) {
+			for (County county : state.getCounties()) {
+				for (int zip : county.getZips()) {
+					if (zip >= 0 && zip <= MAX_ZIP) {
+						counties[next[zip]++] = county;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the counties having {@code zip}.
+	 *
+	 * @param zip zip code
+	 * @return counties having the zip code in the list order. Empty if none or {@code zip} is invalid.
+	 */
+	public List<County> getCounties(int zip) {
+		if (zip < 0 || zip > MAX_ZIP) {
+			return Collections.emptyList();
+		}
+
+		return Arrays.asList(counties).subList(offsets[zip], offsets[zip + 1]);
+	}
+}
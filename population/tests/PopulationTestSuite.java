@@ -21,4 +21,16 @@ public class PopulationTestSuite {
     @Nested
     @DisplayName("TestPopulationDataParser")
     class TestE extends TestPopulationDataParser {}
+
+    @Nested
+    @DisplayName("TestCaseInsensitiveIndex")
+    class TestF extends TestCaseInsensitiveIndex {}
+
+    @Nested
+    @DisplayName("TestZipCodeIndex")
+    class TestG extends TestZipCodeIndex {}
+
+    @Nested
+    @DisplayName("TestCountySpatialIndex")
+    class TestH extends TestCountySpatialIndex {}
 }
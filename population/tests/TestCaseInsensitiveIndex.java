@@ -0,0 +1,46 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCaseInsensitiveIndex {
+    @Test
+    void test_get() {
+        CaseInsensitiveIndex<Integer> index = new CaseInsensitiveIndex<>(2);
+        index.putIfAbsent("WI", 1);
+        index.putIfAbsent("Wisconsin", 1);
+        index.putIfAbsent("La Crosse", 2);
+
+        assertEquals(3, index.size());
+        assertEquals(1, index.get("WI"));
+        assertEquals(1, index.get("wi"));
+        assertEquals(1, index.get("wISCONSIN"));
+        assertEquals(2, index.get("LA CROSSE"));
+        assertNull(index.get("W"));
+        assertNull(index.get(""));
+        assertNull(index.get(null));
+    }
+
+    @Test
+    void test_first_wins() {
+        CaseInsensitiveIndex<Integer> index = new CaseInsensitiveIndex<>(0);
+        index.putIfAbsent("Dane", 1);
+        index.putIfAbsent("DANE", 2);
+        index.putIfAbsent(null, 3);
+
+        assertEquals(1, index.size());
+        assertEquals(1, index.get("dane"));
+    }
+
+    @Test
+    void test_grow() {
+        CaseInsensitiveIndex<Integer> index = new CaseInsensitiveIndex<>(0);
+        for (int i = 0; i < 1000; i++) {
+            index.putIfAbsent("County " + i, i);
+        }
+
+        assertEquals(1000, index.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, index.get("COUNTY " + i));
+        }
+    }
+}
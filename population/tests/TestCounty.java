@@ -14,7 +14,9 @@ public class TestCounty {
         assertEquals(47.36, county.getLatitude());
         assertEquals(-120.88, county.getLongitude());
         assertEquals(10000, county.getPopulation());
-        assertArrayEquals(new Integer[] {53714, 53715, 53716}, county.getZips().toArray());
+        assertArrayEquals(new int[] {53714, 53715, 53716}, county.getZips());
+        assertTrue(county.hasZip(53715));
+        assertFalse(county.hasZip(53717));
     }
 
     @Test
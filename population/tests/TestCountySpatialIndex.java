@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCountySpatialIndex {
+    /**
+     * Great-circle distance in kilometers calculated by the haversine formula.
+     */
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+
+        return 2 * GeoRadius.EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+
+    @Test
+    void test_within() throws Exception {
+        County dane = new County("Dane", 43.07, -89.40, 50000, new int[] {53716});
+        County rock = new County("Rock", 42.67, -89.07, 20000, new int[] {53545});
+        County milwaukee = new County("Milwaukee", 43.04, -87.91, 90000, new int[] {53202});
+        County king = new County("King", 47.49, -121.83, 20000, new int[] {98155});
+
+        CountySpatialIndex index = new CountySpatialIndex(Arrays.asList(
+                new State("WI", "Wisconsin", new ArrayList<>(Arrays.asList(dane, rock, milwaukee))),
+                new State("WA", "Washington", new ArrayList<>(Collections.singletonList(king)))));
+
+        assertEquals(4, index.size());
+        assertEquals(Collections.singletonList(dane), index.within(new GeoRadius(43.07, -89.40, 0)));
+        assertEquals(
+                new HashSet<>(Arrays.asList(dane, rock)),
+                new HashSet<>(index.within(new GeoRadius(43.07, -89.40, 60))));
+        assertEquals(
+                new HashSet<>(Arrays.asList(dane, rock, milwaukee)),
+                new HashSet<>(index.within(new GeoRadius(43.07, -89.40, 150))));
+        assertEquals(4, index.within(new GeoRadius(0, 0, 50000)).size());
+        assertTrue(index.within(new GeoRadius(-43.07, 90.60, 1000)).isEmpty());
+    }
+
+    @Test
+    void test_contains() throws Exception {
+        Random random = new Random(7);
+        List<County> counties = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            counties.add(new County("County", random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180,
+                    1000, new int[] {i}));
+        }
+        CountySpatialIndex index = new CountySpatialIndex(Collections.singletonList(
+                new State("WI", "Wisconsin", counties)));
+
+        for (int i = 0; i < 50; i++) {
+            GeoRadius radius = new GeoRadius(
+                    random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180, random.nextDouble() * 5000);
+            Set<County> within = Collections.newSetFromMap(new IdentityHashMap<>());
+            within.addAll(index.within(radius));
+
+            for (County county : counties) {
+                assertEquals(within.contains(county), radius.contains(county.getLatitude(), county.getLongitude()));
+            }
+        }
+    }
+
+    @Test
+    void test_within_random() throws Exception {
+        Random random = new Random(14);
+
+        List<County> counties = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            counties.add(new County(
+                    "County " + (char) ('A' + i % 26), random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180, 100, new int[] {}));
+        }
+
+        CountySpatialIndex index = new CountySpatialIndex(Collections.singletonList(
+                new State("XX", "Test", new ArrayList<>(counties))));
+
+        for (int i = 0; i < 50; i++) {
+            GeoRadius radius = new GeoRadius(
+                    random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180, random.nextDouble() * 3000);
+
+            Set<County> expected = new HashSet<>();
+            for (County county : counties) {
+                double distance = distanceKm(
+                        radius.getLatitude(), radius.getLongitude(), county.getLatitude(), county.getLongitude());
+                if (distance <= radius.getRadiusKm()) {
+                    expected.add(county);
+                }
+            }
+
+            List<County> actual = index.within(radius);
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected, new HashSet<>(actual));
+        }
+    }
+}
@@ -2,6 +2,12 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,41 +23,88 @@ public class TestPopulationDataParser {
     void test_parse_pop_file() throws IOException {
         PopulationDataParser.loadUsPopFile("res/pops.csv", converter);
 
-        State wa = UnitedStates.current.getState("WA");
+        State wa = UnitedStates.current().getState("WA");
         assertNotNull(wa);
         assertEquals("WA", wa.getAbbr());
         assertEquals("Washington", wa.getName());
 
-        State wi = UnitedStates.current.getState("WI");
+        State wi = UnitedStates.current().getState("WI");
         assertNotNull(wi);
         assertEquals("WI", wi.getAbbr());
         assertEquals("Wisconsin", wi.getName());
 
-        County pierce = UnitedStates.current.getCounty("Pierce, WA");
+        County pierce = UnitedStates.current().getCounty("Pierce, WA");
         assertNotNull(pierce);
         assertTrue(wa.getCounties().contains(pierce));
         assertEquals("Pierce", pierce.getName());
         assertEquals(809950, pierce.getPopulation());
         assertEquals(47.16, pierce.getLatitude());
         assertEquals(-122.41, pierce.getLongitude());
-        assertArrayEquals(new Integer[] {98580, 98387, 98338, 98332, 98335}, pierce.getZips().toArray());
+        assertArrayEquals(new int[] {98332, 98335, 98338, 98387, 98580}, pierce.getZips());
 
-        County kittitas = UnitedStates.current.getCounty("Kittitas, WA");
+        County kittitas = UnitedStates.current().getCounty("Kittitas, WA");
         assertNotNull(kittitas);
         assertTrue(wa.getCounties().contains(kittitas));
         assertEquals("Kittitas", kittitas.getName());
         assertEquals(31466, kittitas.getPopulation());
         assertEquals(47.15, kittitas.getLatitude());
         assertEquals(-120.83, kittitas.getLongitude());
-        assertArrayEquals(new Integer[] {98941, 98068, 98925, 98934, 98926}, kittitas.getZips().toArray());
+        assertArrayEquals(new int[] {98068, 98925, 98926, 98934, 98941}, kittitas.getZips());
 
-        County dane = UnitedStates.current.getCounty("Dane, WI");
+        County dane = UnitedStates.current().getCounty("Dane, WI");
         assertNotNull(pierce);
         assertEquals("Dane", dane.getName());
         assertTrue(wi.getCounties().contains(dane));
         assertEquals(30445, dane.getPopulation());
         assertEquals(47.15, dane.getLatitude());
         assertEquals(-120.83, dane.getLongitude());
-        assertArrayEquals(new Integer[] {}, dane.getZips().toArray());
+        assertArrayEquals(new int[] {}, dane.getZips());
+    }
+
+    @Test
+    void test_load_pop_file_snapshot() throws Exception {
+        Path dir = Files.createTempDirectory("pops");
+        String path = dir.resolve("pops.csv").toString();
+        Files.copy(Path.of("res/pops.csv"), Path.of(path));
+
+        try {
+            List<State> parsed = PopulationDataParser.parseUsPopFile(path, converter);
+
+            // Parsed and saved at first
+            IngestProfiler profiler = new IngestProfiler();
+            PopulationDataParser.loadUsPopFile(path, converter, profiler);
+            assertEquals(
+                    List.of("Reading population snapshot", "Parsing population file", "Saving population snapshot"),
+                    profiler.getStages().stream().map(IngestProfiler.Stage::getName).collect(Collectors.toList()));
+            assertTrue(Files.exists(PopulationSnapshotCache.snapshotPath(path)));
+            assertEquals(parsed, UnitedStates.current().getStates());
+
+            // Loaded from the snapshot
+            profiler = new IngestProfiler();
+            PopulationDataParser.loadUsPopFile(path, converter, profiler);
+            assertEquals(1, profiler.getStages().size());
+            assertEquals(3, profiler.getStages().get(0).getRows());
+            assertEquals(parsed, UnitedStates.current().getStates());
+            for (int i = 0; i < parsed.size(); i++) {
+                assertEquals(parsed.get(i).getCounties(), UnitedStates.current().getStates().get(i).getCounties());
+            }
+            assertEquals(809950, UnitedStates.current().getCounty("Pierce, WA").getPopulation());
+            assertEquals("Wisconsin", UnitedStates.current().getState("WI").getName());
+
+            // Outdated snapshot
+            Files.write(Path.of(path), "WI,Rock,163354,42.67,-89.07,53545\n".getBytes(), StandardOpenOption.APPEND);
+            assertNull(PopulationSnapshotCache.load(path, converter));
+
+            // Corrupted snapshot
+            PopulationSnapshotCache.save(path, parsed);
+            Path snapshot = PopulationSnapshotCache.snapshotPath(path);
+            byte[] bytes = Files.readAllBytes(snapshot);
+            Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 3));
+            assertNull(PopulationSnapshotCache.load(path, converter));
+        } finally {
+            PopulationSnapshotCache.invalidate(path);
+            Files.deleteIfExists(Path.of(path));
+            Files.deleteIfExists(dir);
+        }
     }
 }
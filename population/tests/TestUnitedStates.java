@@ -41,39 +41,103 @@ public class TestUnitedStates {
 
     @Test
     void test_properties() {
-        assertArrayEquals(new State[] {wi, wa}, UnitedStates.current.getStates().toArray());
+        assertArrayEquals(new State[] {wi, wa}, UnitedStates.current().getStates().toArray());
     }
 
     @Test
     void test_get_state() {
-        assertNull(UnitedStates.current.getState(""));
-        assertNull(UnitedStates.current.getState("SS"));
-        assertEquals(wi, UnitedStates.current.getState("WI"));
-        assertEquals(wa, UnitedStates.current.getState("WA"));
+        assertNull(UnitedStates.current().getState(""));
+        assertNull(UnitedStates.current().getState("SS"));
+        assertEquals(wi, UnitedStates.current().getState("WI"));
+        assertEquals(wa, UnitedStates.current().getState("WA"));
     }
 
     @Test
     void test_get_county() throws InvalidStateNameException {
-        assertNull(UnitedStates.current.getCounty(""));
-        assertNull(UnitedStates.current.getCounty("Seattle"));
-        assertNull(UnitedStates.current.getCounty("Seattle, WI"));
-        assertNull(UnitedStates.current.getCounty("Seattle, WA, US"));
-        assertEquals(dane, UnitedStates.current.getCounty("Dane, WI"));
-        assertEquals(dane, UnitedStates.current.getCounty("Dane, Wisconsin"));
-        assertEquals(dane, UnitedStates.current.getCounty("Dane", "WI"));
-        assertEquals(dane, UnitedStates.current.getCounty("Dane", "Wisconsin"));
-        assertEquals(seattle, UnitedStates.current.getCounty("Seattle, WA"));
-        assertEquals(laCrosse, UnitedStates.current.getCounty("La Crosse, WI"));
+        assertNull(UnitedStates.current().getCounty(""));
+        assertNull(UnitedStates.current().getCounty("Seattle"));
+        assertNull(UnitedStates.current().getCounty("Seattle, WI"));
+        assertNull(UnitedStates.current().getCounty("Seattle, WA, US"));
+        assertEquals(dane, UnitedStates.current().getCounty("Dane, WI"));
+        assertEquals(dane, UnitedStates.current().getCounty("Dane, Wisconsin"));
+        assertEquals(dane, UnitedStates.current().getCounty("Dane", "WI"));
+        assertEquals(dane, UnitedStates.current().getCounty("Dane", "Wisconsin"));
+        assertEquals(seattle, UnitedStates.current().getCounty("Seattle, WA"));
+        assertEquals(laCrosse, UnitedStates.current().getCounty("La Crosse, WI"));
+    }
+
+    @Test
+    void test_get_counties_by_zip() {
+        assertEquals(Arrays.asList(dane), UnitedStates.current().getCountiesByZip(53714));
+        assertEquals(Arrays.asList(laCrosse), UnitedStates.current().getCountiesByZip(53711));
+        assertEquals(Arrays.asList(seattle), UnitedStates.current().getCountiesByZip(90175));
+        assertTrue(UnitedStates.current().getCountiesByZip(53717).isEmpty());
+        assertTrue(UnitedStates.current().getCountiesByZip(-1).isEmpty());
+        assertTrue(UnitedStates.current().getCountiesByZip(100000).isEmpty());
+    }
+
+    @Test
+    void test_county_ids() {
+        assertEquals(3, UnitedStates.current().getCountyCount());
+        assertEquals(0, UnitedStates.current().getCountyId(dane));
+        assertEquals(1, UnitedStates.current().getCountyId(laCrosse));
+        assertEquals(2, UnitedStates.current().getCountyId(seattle));
+        assertSame(seattle, UnitedStates.current().getCounty(UnitedStates.current().getCountyId(seattle)));
+    }
+
+    @Test
+    void test_county_ids_shared() {
+        UnitedStates previous = UnitedStates.current();
+        try {
+            // Seattle is shared with the other snapshot under another ID
+            UnitedStates other = UnitedStates.load(new ArrayList<>() {{
+                add(wa);
+            }});
+            assertEquals(0, other.getCountyId(seattle));
+            assertEquals(-1, other.getCountyId(dane));
+
+            assertEquals(2, previous.getCountyId(seattle));
+            assertSame(seattle, previous.getCounty(2));
+        } finally {
+            UnitedStates.load(previous.getStates());
+        }
     }
 
     @Test
     void test_population() {
-        assertEquals(150000, UnitedStates.current.getPopulation());
+        assertEquals(150000, UnitedStates.current().getPopulation());
         assertEquals(
                 120000,
-                UnitedStates.current.getPopulation(state -> state.getAbbr().equalsIgnoreCase("WI")));
+                UnitedStates.current().getPopulation(state -> state.getAbbr().equalsIgnoreCase("WI")));
         assertEquals(
                 30000,
-                UnitedStates.current.getPopulation(state -> state.getAbbr().equalsIgnoreCase("WA")));
+                UnitedStates.current().getPopulation(state -> state.getAbbr().equalsIgnoreCase("WA")));
+    }
+
+    @Test
+    void test_snapshots() throws Exception {
+        UnitedStates pinned = UnitedStates.current();
+        assertThrows(UnsupportedOperationException.class, () -> pinned.getStates().add(wi));
+
+        County rock = new County("Rock", 42.67, -89.07, 160000, Arrays.asList(53545));
+        UnitedStates reloaded = UnitedStates.load(new ArrayList<>() {{
+            add(new State("WI", "Wisconsin", new ArrayList<>() {{
+                add(rock);
+            }}));
+        }});
+
+        try {
+            assertSame(reloaded, UnitedStates.current());
+            assertTrue(reloaded.getVersion() > pinned.getVersion());
+            assertEquals(rock, UnitedStates.current().getCounty("Rock, WI"));
+            assertEquals(160000, UnitedStates.current().getPopulation());
+
+            // Pinned snapshot is not affected by the reload
+            assertNull(pinned.getCounty("Rock, WI"));
+            assertEquals(dane, pinned.getCounty("Dane, WI"));
+            assertEquals(150000, pinned.getPopulation());
+        } finally {
+            UnitedStates.load(pinned.getStates());
+        }
     }
 }
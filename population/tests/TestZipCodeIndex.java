@@ -0,0 +1,38 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestZipCodeIndex {
+    @Test
+    void test_shared_zip_codes() throws Exception {
+        County dane = new County("Dane", 43.0, -89.4, 50000, new int[] {53716, 53714, 53715});
+        County rock = new County("Rock", 42.6, -89.0, 20000, new int[] {53715, 99999, 0});
+        County empty = new County("Empty", 42.6, -89.0, 20000, new int[] {});
+
+        ZipCodeIndex index = new ZipCodeIndex(Arrays.asList(
+                new State("WI", "Wisconsin", new ArrayList<>(Arrays.asList(dane, rock, empty)))));
+
+        assertEquals(Collections.singletonList(dane), index.getCounties(53714));
+        assertEquals(Arrays.asList(dane, rock), index.getCounties(53715));
+        assertEquals(Collections.singletonList(rock), index.getCounties(0));
+        assertEquals(Collections.singletonList(rock), index.getCounties(99999));
+        assertTrue(index.getCounties(53713).isEmpty());
+        assertTrue(index.getCounties(100000).isEmpty());
+    }
+
+    @Test
+    void test_duplicate_zip_codes() throws Exception {
+        County dane = new County("Dane", 43.0, -89.4, 50000, Arrays.asList(53716, 53714, 53716));
+
+        assertArrayEquals(new int[] {53714, 53716}, dane.getZips());
+
+        ZipCodeIndex index = new ZipCodeIndex(Collections.singletonList(
+                new State("WI", "Wisconsin", new ArrayList<>(Collections.singletonList(dane)))));
+
+        assertEquals(Collections.singletonList(dane), index.getCounties(53716));
+    }
+}
@@ -0,0 +1,607 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Util class to read the files which may be compressed.
+ * <p>
+ * gzip and zlib (deflate) files are detected by their magic bytes and decompressed transparently.
+ * Decompression runs ahead of the reader on a separate thread, so decompressing and parsing are pipelined.
+ * <p>
+ * Multi-member gzip files whose members record their own compressed size (BGZF, as written by {@code bgzip})
+ * are decompressed in parallel, one member per task. Such files can be written by {@code compress()}.
+ * Other gzip files are decompressed sequentially.
+ */
+public class CompressedFiles {
+    /**
+     * Format of a file.
+     */
+    public enum Format {
+        PLAIN,
+        GZIP,
+        ZLIB
+    }
+
+    // region gzip format
+    private static final int GZIP_ID_1 = 0x1f;
+    private static final int GZIP_ID_2 = 0x8b;
+    private static final int GZIP_CM_DEFLATE = 8;
+
+    private static final int GZIP_HEADER_SIZE = 10;
+    private static final int GZIP_TRAILER_SIZE = 8;
+
+    private static final int FLAG_HCRC = 2;
+    private static final int FLAG_EXTRA = 4;
+    private static final int FLAG_NAME = 8;
+    private static final int FLAG_COMMENT = 16;
+
+    /**
+     * ID of the extra subfield holding the compressed size of a member.
+     */
+    private static final byte BLOCK_FIELD_ID_1 = 'B';
+    private static final byte BLOCK_FIELD_ID_2 = 'C';
+
+    /**
+     * Maximum size of the uncompressed data in a single member written by {@code compress()}.
+     */
+    private static final int BLOCK_DATA_SIZE = 0xff00;
+    // endregion
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // region Pipeline
+    /**
+     * Size of a decompressed block handed over to the reader.
+     */
+    private static final int PIPE_BLOCK_SIZE = 1 << 18;
+
+    /**
+     * Count of the decompressed blocks allowed to be waiting for the reader.
+     */
+    private static final int PIPE_QUEUE_SIZE = 8;
+
+    /**
+     * Count of the members to be decompressed ahead of the reader per available core.
+     */
+    private static final int MEMBERS_AHEAD_PER_CORE = 2;
+    // endregion
+
+    /**
+     * Detect the format of the file at {@code path} by its magic bytes.
+     *
+     * @param path path of the file
+     * @return format of the file
+     * @throws IOException thrown if failed to read the file
+     */
+    public static Format detect(String path) throws IOException {
+        try (InputStream in = Files.newInputStream(Paths.get(path))) {
+            int b1 = in.read();
+            int b2 = in.read();
+
+            if (b1 == GZIP_ID_1 && b2 == GZIP_ID_2) {
+                return Format.GZIP;
+            }
+            // zlib header: deflate with window size <= 32K, no preset dictionary and a valid check value
+            if (b1 >= 0 && b2 >= 0 && (b1 & 0x0f) == GZIP_CM_DEFLATE && (b1 >> 4) <= 7
+                    && (b2 & 0x20) == 0 && ((b1 << 8) | b2) % 31 == 0) {
+                return Format.ZLIB;
+            }
+
+            return Format.PLAIN;
+        }
+    }
+
+    /**
+     * Check if the file at {@code path} is compressed.
+     *
+     * @param path path of the file
+     * @return if the file is compressed
+     * @throws IOException thrown if failed to read the file
+     */
+    public static boolean isCompressed(String path) throws IOException {
+        return detect(path) != Format.PLAIN;
+    }
+
+    /**
+     * Open the file at {@code path}, decompressing it if compressed.
+     *
+     * @param path path of the file
+     * @return stream of the decompressed content
+     * @throws IOException thrown if failed to open the file
+     */
+    public static InputStream open(String path) throws IOException {
+        Path file = Paths.get(path);
+
+        switch (detect(path)) {
+            case GZIP:
+                long[] bounds = memberBounds(file);
+                if (bounds != null && bounds.length > 2) {
+                    return new ParallelMemberInputStream(file, bounds);
+                }
+
+                return new PipelinedInputStream(new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE));
+            case ZLIB:
+                return new PipelinedInputStream(
+                        new InflaterInputStream(Files.newInputStream(file), new Inflater(), BUFFER_SIZE));
+            default:
+                return new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Read all lines of the file at {@code path} as UTF-8, decompressing it if compressed.
+     * <p>
+     * The returned stream should be closed to release the file, same as {@code Files.lines()}.
+     *
+     * @param path path of the file
+     * @return lines of the decompressed content
+     * @throws IOException thrown if failed to open the file
+     */
+    public static Stream<String> lines(String path) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(open(path), StandardCharsets.UTF_8));
+
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Compress the file at {@code source} to {@code target} as a multi-member gzip file in parallel.
+     * <p>
+     * Each member records its compressed size, so the file can be decompressed in parallel by {@code open()}.
+     * The file is compatible with {@code gzip} and {@code bgzip}.
+     *
+     * @param source path of the file to be compressed
+     * @param target path of the compressed file
+     * @throws IOException thrown if failed to read {@code source} or to write {@code target}
+     */
+    public static void compress(String source, String target) throws IOException {
+        int batchSize = ForkJoinPool.commonPool().getParallelism() * MEMBERS_AHEAD_PER_CORE;
+
+        try (InputStream in = Files.newInputStream(Paths.get(source));
+             OutputStream out = Files.newOutputStream(Paths.get(target))) {
+            while (true) {
+                List<byte[]> blocks = new ArrayList<>();
+                for (int i = 0; i < batchSize; i++) {
+                    byte[] block = in.readNBytes(BLOCK_DATA_SIZE);
+                    if (block.length == 0) {
+                        break;
+                    }
+                    blocks.add(block);
+                }
+
+                if (blocks.isEmpty()) {
+                    break;
+                }
+
+                for (byte[] member : blocks.parallelStream()
+                        .map(CompressedFiles::compressMember)
+                        .collect(Collectors.toList())) {
+                    out.write(member);
+                }
+            }
+
+            // Empty member marking the end of the file
+            out.write(compressMember(new byte[0]));
+        }
+    }
+
+    // region gzip member
+    /**
+     * Compress {@code data} into a single gzip member which records its compressed size.
+     */
+    private static byte[] compressMember(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data);
+        deflater.finish();
+
+        // Deflated data may be slightly larger than the input if incompressible
+        byte[] deflated = new byte[data.length + 1024];
+        int deflatedSize = 0;
+        while (!deflater.finished()) {
+            deflatedSize += deflater.deflate(deflated, deflatedSize, deflated.length - deflatedSize);
+        }
+        deflater.end();
+
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        int memberSize = GZIP_HEADER_SIZE + 8 + deflatedSize + GZIP_TRAILER_SIZE;
+        ByteBuffer member = ByteBuffer.allocate(memberSize).order(ByteOrder.LITTLE_ENDIAN);
+
+        // Header with the extra field
+        member.put((byte) GZIP_ID_1).put((byte) GZIP_ID_2).put((byte) GZIP_CM_DEFLATE).put((byte) FLAG_EXTRA);
+        member.putInt(0).put((byte) 0).put((byte) 0xff);
+        member.putShort((short) 6);
+        member.put(BLOCK_FIELD_ID_1).put(BLOCK_FIELD_ID_2).putShort((short) 2).putShort((short) (memberSize - 1));
+
+        member.put(deflated, 0, deflatedSize);
+
+        member.putInt((int) crc.getValue()).putInt(data.length);
+
+        return member.array();
+    }
+
+    /**
+     * Get the boundaries of the members of the gzip file at {@code file} from the sizes recorded in them.
+     * <p>
+     * Member {@code i} starts at {@code bounds[i]} (inclusive) and ends at {@code bounds[i + 1]} (exclusive).
+     *
+     * @param file path of the gzip file
+     * @return boundaries of the members. {@code null} if any member does not record its size.
+     * @throws IOException thrown if failed to read the file
+     */
+    private static long[] memberBounds(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Long> bounds = new ArrayList<>();
+
+            ByteBuffer header = ByteBuffer.allocate(GZIP_HEADER_SIZE + 2).order(ByteOrder.LITTLE_ENDIAN);
+
+            long pos = 0;
+            while (pos < size) {
+                header.clear();
+                if (readFully(channel, header, pos) < header.capacity()
+                        || (header.get(0) & 0xff) != GZIP_ID_1
+                        || (header.get(1) & 0xff) != GZIP_ID_2
+                        || (header.get(3) & FLAG_EXTRA) == 0) {
+                    return null;
+                }
+
+                int extraLength = header.getShort(GZIP_HEADER_SIZE) & 0xffff;
+                ByteBuffer extra = ByteBuffer.allocate(extraLength).order(ByteOrder.LITTLE_ENDIAN);
+                if (readFully(channel, extra, pos + header.capacity()) < extraLength) {
+                    return null;
+                }
+
+                int memberSize = blockSize(extra);
+                if (memberSize <= 0) {
+                    return null;
+                }
+
+                bounds.add(pos);
+                pos += memberSize;
+            }
+
+            if (pos != size) {
+                return null;
+            }
+            bounds.add(size);
+
+            return bounds.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    /**
+     * Get the member size recorded in the extra field.
+     *
+     * @return size of the member. {@code -1} if not recorded.
+     */
+    private static int blockSize(ByteBuffer extra) {
+        int pos = 0;
+        while (pos + 4 <= extra.capacity()) {
+            int length = extra.getShort(pos + 2) & 0xffff;
+
+            if (extra.get(pos) == BLOCK_FIELD_ID_1 && extra.get(pos + 1) == BLOCK_FIELD_ID_2 && length == 2
+                    && pos + 6 <= extra.capacity()) {
+                return (extra.getShort(pos + 4) & 0xffff) + 1;
+            }
+
+            pos += 4 + length;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Decompress the single gzip member located at {@code [start, end)} of the file of {@code channel}.
+     */
+    private static byte[] decompressMember(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer member = ByteBuffer.allocate((int) (end - start)).order(ByteOrder.LITTLE_ENDIAN);
+        if (readFully(channel, member, start) < member.capacity() || member.capacity() < GZIP_HEADER_SIZE) {
+            throw new ZipException("Truncated gzip member");
+        }
+
+        int flags = member.get(3);
+        int pos = GZIP_HEADER_SIZE;
+        if ((flags & FLAG_EXTRA) != 0) {
+            pos += 2 + (member.getShort(pos) & 0xffff);
+        }
+        if ((flags & FLAG_NAME) != 0) {
+            pos = skipZeroTerminated(member, pos);
+        }
+        if ((flags & FLAG_COMMENT) != 0) {
+            pos = skipZeroTerminated(member, pos);
+        }
+        if ((flags & FLAG_HCRC) != 0) {
+            pos += 2;
+        }
+
+        int trailer = member.capacity() - GZIP_TRAILER_SIZE;
+        long expectedCrc = member.getInt(trailer) & 0xffffffffL;
+        int dataSize = member.getInt(trailer + 4);
+        if (dataSize < 0) {
+            throw new ZipException("Corrupted gzip member");
+        }
+
+        byte[] data = new byte[dataSize];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(member.array(), pos, trailer - pos);
+
+            int inflated = 0;
+            while (inflated < dataSize && !inflater.finished()) {
+                int count = inflater.inflate(data, inflated, dataSize - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+
+            if (inflated != dataSize) {
+                throw new ZipException("Corrupted gzip member");
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        } finally {
+            inflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        if (crc.getValue() != expectedCrc) {
+            throw new ZipException("CRC mismatch of gzip member");
+        }
+
+        return data;
+    }
+
+    /**
+     * Get the position right after the zero-terminated string starting at {@code pos}.
+     */
+    private static int skipZeroTerminated(ByteBuffer buffer, int pos) {
+        while (buffer.get(pos) != 0) {
+            pos++;
+        }
+
+        return pos + 1;
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+
+        return buffer.position();
+    }
+    // endregion
+
+    /**
+     * Stream reading the decompressed blocks in order.
+     */
+    private abstract static class BlockInputStream extends InputStream {
+        private byte[] block = new byte[0];
+        private int pos;
+
+        /**
+         * Get the next decompressed block.
+         *
+         * @return next block. {@code null} if no more block.
+         */
+        protected abstract byte[] nextBlock() throws IOException;
+
+        private boolean ensureBlock() throws IOException {
+            while (pos >= block.length) {
+                byte[] next = nextBlock();
+                if (next == null) {
+                    return false;
+                }
+
+                block = next;
+                pos = 0;
+            }
+
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureBlock()) {
+                return -1;
+            }
+
+            return block[pos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureBlock()) {
+                return -1;
+            }
+
+            int count = Math.min(len, block.length - pos);
+            System.arraycopy(block, pos, b, off, count);
+            pos += count;
+
+            return count;
+        }
+    }
+
+    /**
+     * Stream decompressing the source on a separate thread ahead of the reader.
+     */
+    private static class PipelinedInputStream extends BlockInputStream {
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(PIPE_QUEUE_SIZE);
+        private final Thread worker;
+
+        private volatile IOException error;
+        private volatile boolean closed;
+        private boolean ended;
+
+        PipelinedInputStream(InputStream source) {
+            this.worker = new Thread(() -> {
+                try (source) {
+                    while (!closed) {
+                        byte[] block = source.readNBytes(PIPE_BLOCK_SIZE);
+                        if (block.length == 0) {
+                            break;
+                        }
+                        queue.put(block);
+                    }
+                } catch (IOException e) {
+                    error = e;
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                try {
+                    // Reader may have stopped reading, so do not wait forever
+                    boolean offered = false;
+                    while (!closed && !offered) {
+                        offered = queue.offer(END, 100, TimeUnit.MILLISECONDS);
+                    }
+                } catch (InterruptedException ignored) {
+                }
+            }, "Decompression");
+
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+
+        @Override
+        protected byte[] nextBlock() throws IOException {
+            if (ended) {
+                return null;
+            }
+
+            byte[] block;
+            try {
+                block = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the decompression", e);
+            }
+
+            if (block == END) {
+                ended = true;
+                if (error != null) {
+                    throw error;
+                }
+                return null;
+            }
+
+            return block;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            worker.interrupt();
+            queue.clear();
+        }
+    }
+
+    /**
+     * Stream decompressing the members of a gzip file in parallel ahead of the reader.
+     */
+    private static class ParallelMemberInputStream extends BlockInputStream {
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int membersAhead;
+
+        private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+        private int nextMember;
+
+        ParallelMemberInputStream(Path file, long[] bounds) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.bounds = bounds;
+            this.membersAhead = ForkJoinPool.commonPool().getParallelism() * MEMBERS_AHEAD_PER_CORE;
+
+            fillPending();
+        }
+
+        private void fillPending() {
+            while (pending.size() < membersAhead && nextMember < bounds.length - 1) {
+                long start = bounds[nextMember];
+                long end = bounds[nextMember + 1];
+
+                pending.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return decompressMember(channel, start, end);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                nextMember++;
+            }
+        }
+
+        @Override
+        protected byte[] nextBlock() throws IOException {
+            CompletableFuture<byte[]> future = pending.poll();
+            if (future == null) {
+                return null;
+            }
+
+            fillPending();
+
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            pending.forEach(future -> future.cancel(false));
+            pending.clear();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Records where the time goes while loading the data.
+ * <p>
+ * The loading is divided into the stages. Each stage records its wall time, the count of the rows and the bytes
+ * processed, the count of the rejected rows and the peak heap usage during the stage.
+ * <p>
+ * The progress is reported to the listener when each stage starts and ends,
+ * and the whole result can be written as a JSON report.
+ * <p>
+ * An instance is not thread-safe. Stages are expected to run one by one on a single thread.
+ */
+public class IngestProfiler {
+    /**
+     * Extension of the report file written next to the data source.
+     */
+    public static final String FILE_EXTENSION = ".ingest.json";
+
+    private final Consumer<String> listener;
+    private final List<Stage> stages = new ArrayList<>();
+
+    /**
+     * Create a profiler not reporting the progress.
+     */
+    public IngestProfiler() {
+        this(message -> {});
+    }
+
+    /**
+     * @param listener function to be called with the progress message when each stage starts and ends
+     */
+    public IngestProfiler(Consumer<String> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Get the path of the report file of the data source at {@code dataPath}.
+     *
+     * @param dataPath path of the data file or the directory
+     * @return path of the report file
+     */
+    public static Path reportPath(String dataPath) {
+        return Paths.get(dataPath + FILE_EXTENSION);
+    }
+
+    /**
+     * Start a stage. The stage ends when it is closed.
+     *
+     * @param name name of the stage
+     * @return started stage
+     */
+    public Stage start(String name) {
+        Stage stage = new Stage(name);
+        stages.add(stage);
+
+        listener.accept(String.format("%s...", name));
+
+        return stage;
+    }
+
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    /**
+     * Get the total wall time of all stages.
+     *
+     * @return total wall time in milliseconds
+     */
+    public long getTotalMillis() {
+        return stages.stream().mapToLong(Stage::getMillis).sum();
+    }
+
+    /**
+     * Get the peak heap usage among all stages.
+     *
+     * @return peak heap usage in bytes
+     */
+    public long getPeakHeapBytes() {
+        return stages.stream().mapToLong(Stage::getPeakHeapBytes).max().orElse(0);
+    }
+
+    /**
+     * A one line summary of all stages.
+     *
+     * @return summary of the stages
+     */
+    public String summary() {
+        return String.format("Loaded in %d ms (%s). Peak heap %s.",
+                getTotalMillis(),
+                stages.stream()
+                        .map(stage -> String.format("%s %d ms", stage.name, stage.getMillis()))
+                        .collect(Collectors.joining(", ")),
+                StringUtils.simplifyNumber(getPeakHeapBytes(), false, false, false, 1) + "B");
+    }
+
+    /**
+     * Convert the result of all stages to JSON.
+     *
+     * @return JSON string of the result
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append(String.format("  \"totalMillis\": %d,\n", getTotalMillis()));
+        sb.append(String.format("  \"peakHeapBytes\": %d,\n", getPeakHeapBytes()));
+        sb.append("  \"stages\": [");
+        sb.append(stages.stream().map(Stage::toJson).collect(Collectors.joining(",")));
+        sb.append(stages.isEmpty() ? "]\n" : "\n  ]\n");
+        sb.append("}\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * Write the JSON report to {@code path}.
+     *
+     * @param path path of the report file
+     * @throws IOException thrown if failed to write the report
+     */
+    public void writeReport(Path path) throws IOException {
+        Files.write(path, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sum of the usage of all heap memory pools.
+     *
+     * @param peak if the peak usage since the last reset is summed instead of the current usage
+     */
+    private static long heapUsage(boolean peak) {
+        long sum = 0;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                sum += peak ? pool.getPeakUsage().getUsed() : pool.getUsage().getUsed();
+            }
+        }
+
+        return sum;
+    }
+
+    private static void resetPeakHeapUsage() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * A single stage of the loading.
+     */
+    public class Stage implements AutoCloseable {
+        private final String name;
+        private final long startNanos;
+
+        private long endNanos = -1;
+        private long rows;
+        private long bytes;
+        private long rejected;
+        private long peakHeapBytes;
+
+        private Stage(String name) {
+            this.name = name;
+
+            resetPeakHeapUsage();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * Record the count of the rows processed in this stage.
+         *
+         * @param rows count of the rows
+         * @return this stage
+         */
+        public Stage rows(long rows) {
+            this.rows = rows;
+            return this;
+        }
+
+        /**
+         * Record the count of the bytes read in this stage.
+         *
+         * @param bytes count of the bytes
+         * @return this stage
+         */
+        public Stage bytes(long bytes) {
+            this.bytes = bytes;
+            return this;
+        }
+
+        /**
+         * Record the count of the rows rejected in this stage.
+         *
+         * @param rejected count of the rejected rows
+         * @return this stage
+         */
+        public Stage rejected(long rejected) {
+            this.rejected = rejected;
+            return this;
+        }
+
+        /**
+         * End this stage. Closing an ended stage does nothing.
+         */
+        @Override
+        public void close() {
+            if (endNanos >= 0) {
+                return;
+            }
+
+            endNanos = System.nanoTime();
+            peakHeapBytes = heapUsage(true);
+
+            listener.accept(rows > 0
+                    ? String.format("%s: %d rows in %d ms", name, rows, getMillis())
+                    : String.format("%s: done in %d ms", name, getMillis()));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the wall time of this stage. Counted until now if the stage has not ended.
+         *
+         * @return wall time in milliseconds
+         */
+        public long getMillis() {
+            return ((endNanos >= 0 ? endNanos : System.nanoTime()) - startNanos) / 1_000_000;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Get the peak heap usage during this stage. Current usage if the stage has not ended.
+         *
+         * @return peak heap usage in bytes
+         */
+        public long getPeakHeapBytes() {
+            return endNanos >= 0 ? peakHeapBytes : heapUsage(false);
+        }
+
+        /**
+         * Get the rate of {@code count} per second of this stage.
+         */
+        private double perSecond(long count) {
+            long nanos = (endNanos >= 0 ? endNanos : System.nanoTime()) - startNanos;
+            return nanos > 0 ? count * 1e9 / nanos : 0;
+        }
+
+        private String toJson() {
+            return String.format(Locale.ROOT,
+                    "\n    {\"name\": \"%s\", \"millis\": %d, \"rows\": %d, \"rowsPerSecond\": %.1f, "
+                            + "\"bytes\": %d, \"bytesPerSecond\": %.1f, \"rejected\": %d, \"peakHeapBytes\": %d}",
+                    name.replace("\\", "\\\\").replace("\"", "\\\""),
+                    getMillis(), rows, perSecond(rows), bytes, perSecond(bytes), rejected, getPeakHeapBytes());
+        }
+    }
+}
@@ -1,4 +1,8 @@
+import java.util.regex.Pattern;
+
 public class StringUtils {
+    private static final Pattern ALPHABETS = Pattern.compile("^[a-zA-Z][a-zA-Z '.-]*$");
+
     /**
      * Return {@code str} if not empty. Otherwise, return {@code defaultStr}.
      *
@@ -23,7 +27,7 @@ public class StringUtils {
      * @return if {@code str} only contains alphabets
      */
     public static boolean isAlphabets(String str) {
-        return (str != null) && (!str.equals("")) && (str.matches("^[a-zA-Z][a-zA-Z '.-]*$"));
+        return (str != null) && (!str.equals("")) && ALPHABETS.matcher(str).matches();
     }
 
     private static final String[] numUnit = new String[] {"", "K", "M", "G", "T"};
@@ -0,0 +1,139 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCompressedFiles {
+    private Path dir;
+    private Path plain;
+    private byte[] content;
+
+    @BeforeEach
+    void prepare() throws IOException {
+        dir = Files.createTempDirectory("compressed");
+        plain = dir.resolve("plain.csv");
+
+        // Spans multiple members
+        content = IntStream.range(0, 20000)
+                .mapToObj(i -> String.format("2020-04-%02d,County %d,WI,%d,%d", i % 30 + 1, i, i * 7, i % 13))
+                .collect(Collectors.joining("\n", "", "\n"))
+                .getBytes(StandardCharsets.UTF_8);
+        Files.write(plain, content);
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        try (Stream<Path> paths = Files.list(dir)) {
+            for (Path path : paths.collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private byte[] readAll(Path path) throws IOException {
+        try (InputStream in = CompressedFiles.open(path.toString())) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void test_plain() throws IOException {
+        assertEquals(CompressedFiles.Format.PLAIN, CompressedFiles.detect(plain.toString()));
+        assertArrayEquals(content, readAll(plain));
+    }
+
+    @Test
+    void test_gzip() throws IOException {
+        Path path = dir.resolve("data.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+            out.write(content);
+        }
+
+        assertEquals(CompressedFiles.Format.GZIP, CompressedFiles.detect(path.toString()));
+        assertArrayEquals(content, readAll(path));
+    }
+
+    @Test
+    void test_gzip_concatenated() throws IOException {
+        Path path = dir.resolve("data.csv.gz");
+        try (OutputStream file = Files.newOutputStream(path)) {
+            int half = content.length / 2;
+
+            GZIPOutputStream first = new GZIPOutputStream(file);
+            first.write(content, 0, half);
+            first.finish();
+
+            GZIPOutputStream second = new GZIPOutputStream(file);
+            second.write(content, half, content.length - half);
+            second.finish();
+        }
+
+        assertArrayEquals(content, readAll(path));
+    }
+
+    @Test
+    void test_zlib() throws IOException {
+        Path path = dir.resolve("data.csv.zz");
+        try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(path))) {
+            out.write(content);
+        }
+
+        assertEquals(CompressedFiles.Format.ZLIB, CompressedFiles.detect(path.toString()));
+        assertArrayEquals(content, readAll(path));
+    }
+
+    @Test
+    void test_compress_parallel_members() throws IOException {
+        Path path = dir.resolve("data.csv.gz");
+        CompressedFiles.compress(plain.toString(), path.toString());
+
+        assertEquals(CompressedFiles.Format.GZIP, CompressedFiles.detect(path.toString()));
+        assertTrue(Files.size(path) < content.length);
+        assertArrayEquals(content, readAll(path));
+
+        // Readable by the standard gzip decoder
+        try (InputStream in = new java.util.zip.GZIPInputStream(Files.newInputStream(path))) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void test_corrupted_member() throws IOException {
+        Path path = dir.resolve("data.csv.gz");
+        CompressedFiles.compress(plain.toString(), path.toString());
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x55;
+        Files.write(path, bytes);
+
+        assertThrows(IOException.class, () -> readAll(path));
+    }
+
+    @Test
+    void test_lines() throws IOException {
+        Path path = dir.resolve("data.csv.gz");
+        CompressedFiles.compress(plain.toString(), path.toString());
+
+        try (Stream<String> lines = CompressedFiles.lines(path.toString())) {
+            List<String> read = lines.collect(Collectors.toList());
+
+            assertEquals(20000, read.size());
+            assertEquals("2020-04-01,County 0,WI,0,0", read.get(0));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIngestProfiler {
+    @Test
+    void test_stages() throws InterruptedException {
+        List<String> messages = new ArrayList<>();
+        IngestProfiler profiler = new IngestProfiler(messages::add);
+
+        try (IngestProfiler.Stage stage = profiler.start("Parsing")) {
+            Thread.sleep(20);
+            stage.rows(100).bytes(2000).rejected(3);
+        }
+        try (IngestProfiler.Stage stage = profiler.start("Aggregating")) {
+            Thread.sleep(5);
+            assertEquals("Aggregating", stage.getName());
+        }
+
+        assertEquals(List.of("Parsing...", messages.get(1), "Aggregating...", messages.get(3)), messages);
+        assertTrue(messages.get(1).startsWith("Parsing: 100 rows in "));
+        assertTrue(messages.get(3).startsWith("Aggregating: done in "));
+
+        IngestProfiler.Stage parsing = profiler.getStages().get(0);
+        assertEquals("Parsing", parsing.getName());
+        assertEquals(100, parsing.getRows());
+        assertEquals(2000, parsing.getBytes());
+        assertEquals(3, parsing.getRejected());
+        assertTrue(parsing.getMillis() >= 20);
+        assertTrue(parsing.getPeakHeapBytes() > 0);
+
+        long millis = parsing.getMillis();
+        parsing.close();
+        assertEquals(millis, parsing.getMillis());
+        assertEquals(4, messages.size());
+
+        assertEquals(profiler.getTotalMillis(), parsing.getMillis() + profiler.getStages().get(1).getMillis());
+        assertTrue(profiler.summary().startsWith(String.format("Loaded in %d ms (Parsing ", profiler.getTotalMillis())));
+    }
+
+    @Test
+    void test_report() throws IOException {
+        IngestProfiler profiler = new IngestProfiler();
+        assertEquals("{\n  \"totalMillis\": 0,\n  \"peakHeapBytes\": 0,\n  \"stages\": []\n}\n", profiler.toJson());
+
+        profiler.start("Reading \"data\"").rows(10).close();
+
+        Path path = Files.createTempFile("ingest", IngestProfiler.FILE_EXTENSION);
+        try {
+            profiler.writeReport(path);
+            String json = Files.readString(path);
+
+            assertTrue(json.contains("{\"name\": \"Reading \\\"data\\\"\", \"millis\": "));
+            assertTrue(json.contains("\"rows\": 10, \"rowsPerSecond\": "));
+            assertTrue(json.contains("\"bytes\": 0, \"bytesPerSecond\": 0.0, \"rejected\": 0, \"peakHeapBytes\": "));
+        } finally {
+            Files.delete(path);
+        }
+
+        assertEquals("data.csv" + IngestProfiler.FILE_EXTENSION, IngestProfiler.reportPath("data.csv").toString());
+    }
+}